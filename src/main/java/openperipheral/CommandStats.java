@@ -0,0 +1,80 @@
+package openperipheral;
+
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.command.ICommand;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.util.ChatComponentText;
+import openperipheral.adapter.ResultCache;
+import openperipheral.adapter.peripheral.SyncCallScheduler;
+import openperipheral.adapter.peripheral.SyncCallScheduler.WorldStats;
+import openperipheral.meta.ItemMetadataCache;
+
+import com.google.common.cache.CacheStats;
+
+public class CommandStats implements ICommand {
+
+	@Override
+	public int compareTo(Object o) {
+		return getCommandName().compareTo(((ICommand)o).getCommandName());
+	}
+
+	@Override
+	public String getCommandName() {
+		return "op_stats";
+	}
+
+	@Override
+	public String getCommandUsage(ICommandSender sender) {
+		return "op_stats";
+	}
+
+	@Override
+	public List<?> getCommandAliases() {
+		return null;
+	}
+
+	@Override
+	public void processCommand(ICommandSender sender, String[] args) {
+		Map<Integer, WorldStats> stats = SyncCallScheduler.INSTANCE.getStats();
+		if (stats.isEmpty()) sender.addChatMessage(new ChatComponentText("No synchronous calls executed yet"));
+
+		for (Map.Entry<Integer, WorldStats> e : stats.entrySet()) {
+			WorldStats s = e.getValue();
+			sender.addChatMessage(new ChatComponentText(String.format("Dim %d: queued %d, drained %d, carried over %d, time %.3f ms (total drained %d, ticks with carry-over %d)",
+					e.getKey(), s.queued, s.lastDrained, s.lastCarriedOver, s.lastTimeNanos / 1000000.0, s.totalDrained, s.ticksWithCarryOver)));
+		}
+
+		long hits = 0;
+		long misses = 0;
+		long entries = 0;
+		List<ResultCache> caches = ResultCache.listCaches();
+		for (ResultCache cache : caches) {
+			hits += cache.getHits();
+			misses += cache.getMisses();
+			entries += cache.getSize();
+		}
+		sender.addChatMessage(new ChatComponentText(String.format("Result cache: %d methods, %d entries, %d hits, %d misses", caches.size(), entries, hits, misses)));
+
+		CacheStats itemStats = ItemMetadataCache.INSTANCE.getStats();
+		sender.addChatMessage(new ChatComponentText(String.format("Item metadata cache: %d entries, %d hits, %d misses (hit rate %.1f%%), %d evictions",
+				ItemMetadataCache.INSTANCE.getSize(), itemStats.hitCount(), itemStats.missCount(), itemStats.hitRate() * 100, itemStats.evictionCount())));
+	}
+
+	@Override
+	public boolean canCommandSenderUseCommand(ICommandSender sender) {
+		return sender.canCommandSenderUseCommand(2, getCommandName());
+	}
+
+	@Override
+	public List<?> addTabCompletionOptions(ICommandSender icommandsender, String[] astring) {
+		return null;
+	}
+
+	@Override
+	public boolean isUsernameIndex(String[] astring, int i) {
+		return false;
+	}
+
+}
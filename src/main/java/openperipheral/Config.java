@@ -9,4 +9,31 @@ public class Config {
 
 	@ConfigProperty(category = "dev", name = "enableDevMethods", comment = "Enable methods that access reflection metadata")
 	public static boolean devMethods = false;
+
+	@ConfigProperty(category = "performance", name = "generateInvokers", comment = "Use generated classes instead of reflection for calling adapter methods")
+	public static boolean generateInvokers = true;
+
+	@ConfigProperty(category = "performance", name = "syncCallTickBudget", comment = "Time (in microseconds) per world tick that can be spent on synchronous calls. Remaining calls are delayed to next tick")
+	public static int syncCallTickBudget = 5000;
+
+	@ConfigProperty(category = "performance", name = "resultCacheSize", comment = "Maximum number of cached results per method marked with @Cached. Set to 0 to disable caching")
+	public static int resultCacheSize = 256;
+
+	@ConfigProperty(category = "performance", name = "cursorExpireTicks", comment = "Number of ticks after which unused result cursors are closed")
+	public static int cursorExpireTicks = 1200;
+
+	@ConfigProperty(category = "performance", name = "conversionMaxDepth", comment = "Maximum nesting level of values returned to Lua. Set to 0 to disable limit")
+	public static int conversionMaxDepth = 0;
+
+	@ConfigProperty(category = "performance", name = "conversionMaxSize", comment = "Maximum number of table entries (including nested tables) in single result returned to Lua. Set to 0 to disable limit")
+	public static int conversionMaxSize = 0;
+
+	@ConfigProperty(category = "performance", name = "conversionThreads", comment = "Number of worker threads used for converting large results to Lua. Set to 0 to always convert on calling thread")
+	public static int conversionThreads = 2;
+
+	@ConfigProperty(category = "performance", name = "conversionParallelThreshold", comment = "Minimal number of elements in list, array or map returned to Lua that will be converted in parallel")
+	public static int conversionParallelThreshold = 4096;
+
+	@ConfigProperty(category = "performance", name = "itemMetadataCacheSize", comment = "Maximum number of cached item stack descriptions (one per item, damage and NBT). Set to 0 to disable cache")
+	public static int itemMetadataCacheSize = 4096;
 }
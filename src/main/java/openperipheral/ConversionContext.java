@@ -0,0 +1,328 @@
+package openperipheral;
+
+import java.lang.reflect.Array;
+import java.util.*;
+
+import openmods.Log;
+import openperipheral.api.IStreamingTypeConverter;
+import openperipheral.api.IThreadSafeConverter;
+import openperipheral.api.ITypeConverter;
+import openperipheral.api.ITypeConvertersRegistry;
+import openperipheral.converter.IRequestedKeysProvider;
+import openperipheral.converter.ITableSizeTracker;
+import openperipheral.converter.LuaArrayTable;
+import openperipheral.converter.LuaTableSink;
+import openperipheral.converter.ResultQuery;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * State of single top-level conversion. Remembers already converted objects (by identity), so shared values are converted once and cycles can be detected.
+ * Not thread safe - new instance should be used for every top-level call.
+ * Large collections may be split between child contexts (see {@link ParallelConversion}). Parent is not modified until all children finish.
+ */
+class ConversionContext implements ITypeConvertersRegistry, IRequestedKeysProvider, ITableSizeTracker {
+
+	public static class ConversionLimitException extends IllegalArgumentException {
+		private static final long serialVersionUID = -2937546204413853373L;
+
+		public ConversionLimitException(String message) {
+			super(message);
+		}
+	}
+
+	static class NotThreadSafeException extends RuntimeException {
+		private static final long serialVersionUID = 4337185617291434170L;
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	}
+
+	private static final Object IN_PROGRESS = new Object();
+
+	private final TypeConversionRegistry registry;
+
+	private final Map<Object, Object> converted = Maps.newIdentityHashMap();
+
+	private final ConversionContext parent;
+
+	private final int maxDepth;
+
+	private final int maxSize;
+
+	// tables already included in size, null if size is not limited
+	private final Set<Object> counted;
+
+	private int depth;
+
+	private int size;
+
+	// entries reported by converters for tables that are still being built
+	private int pending;
+
+	// only top-level value of call may be converted in parallel, nested collections stay on current thread
+	private boolean isEntryPoint;
+
+	private Object filteredRow;
+
+	private Set<String> rowRequestedKeys;
+
+	public ConversionContext(TypeConversionRegistry registry) {
+		this.registry = registry;
+		this.parent = null;
+		this.maxDepth = Config.conversionMaxDepth;
+		this.maxSize = Config.conversionMaxSize;
+		this.counted = maxSize > 0? Sets.newIdentityHashSet() : null;
+		this.isEntryPoint = true;
+	}
+
+	private ConversionContext(ConversionContext parent) {
+		this.registry = parent.registry;
+		this.parent = parent;
+		this.maxDepth = parent.maxDepth;
+		this.maxSize = parent.maxSize > 0? Math.max(parent.maxSize - parent.size - parent.pending, 1) : 0;
+		this.counted = maxSize > 0? Sets.newIdentityHashSet() : null;
+		this.depth = parent.depth;
+	}
+
+	ConversionContext createChild() {
+		return new ConversionContext(this);
+	}
+
+	void mergeChild(ConversionContext child) {
+		if (maxSize > 0) {
+			counted.addAll(child.counted);
+			size += child.size;
+			checkSize();
+		}
+	}
+
+	private void checkSize() {
+		if (size + pending > maxSize) throw new ConversionLimitException(String.format("Result too large (more than %d table entries)", maxSize));
+	}
+
+	private boolean isCounted(Object table) {
+		return counted.contains(table) || (parent != null && parent.isCounted(table));
+	}
+
+	/**
+	 * Adds entries of converted table and all tables nested in it, unless they were already counted.
+	 * Whole result is visited (not only values converted in this context), so tables from caches count same as freshly converted ones.
+	 */
+	private void countEntries(Object value) {
+		if (!(value instanceof Map) || isCounted(value)) return;
+		counted.add(value);
+
+		final Map<?, ?> table = (Map<?, ?>)value;
+		size += table.size();
+		checkSize();
+
+		for (Map.Entry<?, ?> e : table.entrySet()) {
+			countEntries(e.getKey());
+			countEntries(e.getValue());
+		}
+	}
+
+	@Override
+	public void addEntries(int count) {
+		if (maxSize > 0) {
+			pending += count;
+			checkSize();
+		}
+	}
+
+	boolean isThreadSafe(Class<?> cls) {
+		return registry.isThreadSafe(cls);
+	}
+
+	void markConverted(Object obj, Object result) {
+		converted.put(obj, result);
+	}
+
+	void convertRange(Object[] values, Object[] result, int from, int to) {
+		for (int i = from; i < to; i++)
+			result[i] = toLua(values[i]);
+	}
+
+	/**
+	 * Converts rows of list, array or map, keeping only ones selected by query. Nil result is returned unchanged
+	 */
+	public Object toLua(Object obj, ResultQuery query) {
+		isEntryPoint = false;
+		if (obj == null) return null;
+
+		final Object[] keys;
+		final Object[] rows;
+		if (obj instanceof Map) {
+			final Map<?, ?> map = (Map<?, ?>)obj;
+			keys = new Object[map.size()];
+			rows = new Object[map.size()];
+			int i = 0;
+			for (Map.Entry<?, ?> e : map.entrySet()) {
+				keys[i] = e.getKey();
+				rows[i] = e.getValue();
+				i++;
+			}
+		} else if (obj instanceof Collection) {
+			keys = null;
+			rows = ((Collection<?>)obj).toArray();
+		} else if (obj instanceof Object[]) {
+			keys = null;
+			rows = (Object[])obj;
+		} else if (obj != null && obj.getClass().isArray()) {
+			keys = null;
+			rows = new Object[Array.getLength(obj)];
+			for (int i = 0; i < rows.length; i++)
+				rows[i] = Array.get(obj, i);
+		} else {
+			throw new IllegalArgumentException("Query can only be applied to list, array or map, got " + obj.getClass().getName());
+		}
+
+		final int limit = query.getLimit();
+		// without sorting, rows over limit are not needed
+		final int maxSelected = (limit > 0 && !query.isSorted())? limit : Integer.MAX_VALUE;
+
+		final List<Integer> selected = Lists.newArrayList();
+		final Object[] converted = new Object[rows.length];
+		for (int i = 0; i < rows.length && selected.size() < maxSelected; i++) {
+			final Object row = convertRow(rows[i], query.getRequestedKeys());
+			if (query.matches(row)) {
+				converted[i] = row;
+				selected.add(i);
+			}
+		}
+
+		if (query.isSorted()) {
+			final Comparator<Object> rowComparator = query.getRowComparator();
+			Collections.sort(selected, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer a, Integer b) {
+					return rowComparator.compare(converted[a], converted[b]);
+				}
+			});
+		}
+
+		final int count = limit > 0? Math.min(limit, selected.size()) : selected.size();
+
+		if (keys != null) {
+			final Map<Object, Object> result = Maps.newHashMapWithExpectedSize(count);
+			for (int i = 0; i < count; i++) {
+				final int index = selected.get(i);
+				result.put(toLua(keys[index]), query.project(converted[index]));
+			}
+			return result;
+		} else {
+			final Object[] result = new Object[count];
+			for (int i = 0; i < count; i++)
+				result[i] = query.project(converted[selected.get(i)]);
+			return new LuaArrayTable(result);
+		}
+	}
+
+	private Object convertRow(Object row, Set<String> requestedKeys) {
+		if (requestedKeys == null) return toLua(row);
+
+		final Set<String> prevKeys = rowRequestedKeys;
+		final Object prevRow = filteredRow;
+		rowRequestedKeys = requestedKeys;
+		filteredRow = row;
+		try {
+			final Object result = toLua(row);
+			// filtered table is not complete, so it can't be reused
+			if (converted.get(row) == result) converted.remove(row);
+			return result;
+		} finally {
+			rowRequestedKeys = prevKeys;
+			filteredRow = prevRow;
+		}
+	}
+
+	@Override
+	public Set<String> getRequestedKeys(Object value) {
+		return value == filteredRow? rowRequestedKeys : null;
+	}
+
+	private Object getConverted(Object obj) {
+		Object result = converted.get(obj);
+		if (result == null && parent != null) result = parent.getConverted(obj);
+		return result;
+	}
+
+	@Override
+	public void register(ITypeConverter converter) {
+		registry.register(converter);
+	}
+
+	@Override
+	public Object fromLua(Object obj, Class<?> expected) {
+		return registry.fromLua(obj, expected);
+	}
+
+	@Override
+	public Object toLua(Object obj) {
+		final boolean isEntryPoint = this.isEntryPoint;
+		this.isEntryPoint = false;
+
+		if (TypeConversionRegistry.isLuaValue(obj)) return obj;
+
+		Object result = getConverted(obj);
+		if (result == IN_PROGRESS) throw new ConversionLimitException("Cyclic reference in value of type " + obj.getClass().getName());
+		if (result != null) return result;
+
+		if (maxDepth > 0 && depth >= maxDepth) throw new ConversionLimitException(String.format("Result too deep (more than %d levels)", maxDepth));
+
+		converted.put(obj, IN_PROGRESS);
+		final int pendingBefore = pending;
+		depth++;
+		try {
+			final ITypeConverter[] converters = registry.getToLuaConverters(obj.getClass());
+			result = (isEntryPoint && ParallelConversion.isEnabled())? ParallelConversion.convert(this, obj, converters) : null;
+			if (result == null) result = convert(obj, converters);
+		} finally {
+			depth--;
+		}
+
+		converted.put(obj, result);
+		if (maxSize > 0) {
+			// finished table is counted by its actual content
+			pending = pendingBefore;
+			countEntries(result);
+		}
+		return result;
+	}
+
+	private Object convert(Object obj, ITypeConverter[] converters) {
+		for (ITypeConverter converter : converters) {
+			// child contexts run on worker threads
+			if (parent != null && !(converter instanceof IThreadSafeConverter)) throw new NotThreadSafeException();
+			try {
+				if (converter instanceof IStreamingTypeConverter) {
+					LuaTableSink sink = new LuaTableSink(this, getRequestedKeys(obj));
+					// table is visible before it's filled, so self-references can point to it
+					converted.put(obj, sink.getTable());
+					if (((IStreamingTypeConverter)converter).toLua(this, obj, sink)) return sink.getTable();
+					converted.put(obj, IN_PROGRESS);
+					continue;
+				}
+
+				Object response = converter.toLua(this, obj);
+				if (response != null) return response;
+			} catch (ConversionLimitException e) {
+				throw e;
+			} catch (NotThreadSafeException e) {
+				throw e;
+			} catch (Throwable e) {
+				Log.warn(e, "Type converter %s failed", converter);
+				throw Throwables.propagate(e);
+			}
+		}
+
+		// should never get here, since ConverterString is catch-all
+		throw new IllegalStateException("Conversion failed on value " + obj);
+	}
+}
@@ -3,13 +3,19 @@ package openperipheral;
 import java.io.File;
 
 import net.minecraftforge.client.ClientCommandHandler;
+import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.common.config.Configuration;
 import openmods.config.properties.ConfigProcessing;
 import openperipheral.adapter.PeripheralHandlers;
+import openperipheral.adapter.ResultCursor;
+import openperipheral.adapter.ServerTickCounter;
+import openperipheral.adapter.peripheral.SyncCallScheduler;
+import cpw.mods.fml.common.FMLCommonHandler;
 import cpw.mods.fml.common.Mod;
 import cpw.mods.fml.common.event.FMLInitializationEvent;
 import cpw.mods.fml.common.event.FMLPostInitializationEvent;
 import cpw.mods.fml.common.event.FMLPreInitializationEvent;
+import cpw.mods.fml.common.event.FMLServerStartingEvent;
 import dan200.computercraft.api.ComputerCraftAPI;
 
 @Mod(modid = ModInfo.ID, name = ModInfo.NAME, version = ModInfo.VERSION, dependencies = ModInfo.DEPENDENCIES)
@@ -26,10 +32,20 @@ public class OpenPeripheralCore {
 	@Mod.EventHandler
 	public void init(FMLInitializationEvent evt) {
 		ClientCommandHandler.instance.registerCommand(new CommandDump());
+
+		FMLCommonHandler.instance().bus().register(SyncCallScheduler.INSTANCE);
+		FMLCommonHandler.instance().bus().register(ServerTickCounter.INSTANCE);
+		FMLCommonHandler.instance().bus().register(new ResultCursor.ExpiryHandler());
+		MinecraftForge.EVENT_BUS.register(SyncCallScheduler.INSTANCE);
 	}
 
 	@Mod.EventHandler
 	public void postInit(FMLPostInitializationEvent evt) {
 		ComputerCraftAPI.registerPeripheralProvider(new PeripheralHandlers());
 	}
+
+	@Mod.EventHandler
+	public void serverStart(FMLServerStartingEvent evt) {
+		evt.registerServerCommand(new CommandStats());
+	}
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+package openperipheral;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import openperipheral.api.ITypeConverter;
+import openperipheral.converter.ConverterArray;
+import openperipheral.converter.ConverterList;
+import openperipheral.converter.ConverterMap;
+import openperipheral.converter.LuaArrayTable;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Splits conversion of large lists, arrays and maps into chunks converted on shared thread pool.
+ * Calling thread converts one of chunks itself, so result is never slower than waiting for single worker.
+ */
+class ParallelConversion {
+
+	private static ExecutorService executor;
+
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(Config.conversionThreads, new ThreadFactoryBuilder()
+					.setDaemon(true)
+					.setNameFormat("OpenPeripheral conversion thread %d")
+					.build());
+		}
+
+		return executor;
+	}
+
+	public static boolean isEnabled() {
+		return Config.conversionThreads > 0 && Config.conversionParallelThreshold > 0;
+	}
+
+	/**
+	 * @return converted collection or null, if value can't be converted in parallel
+	 */
+	public static Object convert(ConversionContext context, Object obj, ITypeConverter[] converters) {
+		if (converters.length == 0) return null;
+		final ITypeConverter first = converters[0];
+		final int threshold = Config.conversionParallelThreshold;
+
+		if (obj instanceof Object[] && first instanceof ConverterArray) {
+			final Object[] values = (Object[])obj;
+			if (values.length < threshold) return null;
+			final Object[] result = convertValues(context, values, 1);
+			return result != null? new LuaArrayTable(result) : null;
+		}
+
+		if (obj instanceof List && first instanceof ConverterList) {
+			final List<?> list = (List<?>)obj;
+			if (list.size() < threshold) return null;
+			final Object[] result = convertValues(context, list.toArray(), 1);
+			return result != null? new LuaArrayTable(result) : null;
+		}
+
+		if (obj instanceof Map && first instanceof ConverterMap) {
+			final Map<?, ?> map = (Map<?, ?>)obj;
+			final int size = map.size();
+			if (size < threshold) return null;
+
+			// keys and values interleaved, so both are converted in same chunk
+			final Object[] entries = new Object[2 * size];
+			int i = 0;
+			for (Map.Entry<?, ?> e : map.entrySet()) {
+				entries[i++] = e.getKey();
+				entries[i++] = e.getValue();
+			}
+
+			// table must exist before elements are converted, since they may reference it
+			final Map<Object, Object> result = Maps.newHashMap();
+			context.markConverted(obj, result);
+			final Object[] converted = convertValues(context, entries, 2);
+			if (converted == null) return null;
+
+			for (int j = 0; j < converted.length; j += 2) {
+				final Object value = converted[j + 1];
+				if (value != null) result.put(converted[j], value);
+			}
+
+			return result;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Checks elements before work is split, since running into non thread-safe converter on worker means converting everything again.
+	 * Only direct elements are checked, nested values are still verified during conversion.
+	 */
+	private static boolean canConvertInParallel(ConversionContext context, Object[] values) {
+		Class<?> lastChecked = null;
+		for (Object value : values) {
+			if (TypeConversionRegistry.isLuaValue(value)) continue;
+			final Class<?> cls = value.getClass();
+			if (cls == lastChecked) continue;
+			if (!context.isThreadSafe(cls)) return false;
+			lastChecked = cls;
+		}
+
+		return true;
+	}
+
+	private static Object[] convertValues(ConversionContext parent, final Object[] values, int stride) {
+		if (!canConvertInParallel(parent, values)) return null;
+		parent.addEntries(values.length / stride);
+
+		final Object[] result = new Object[values.length];
+		final int chunks = Config.conversionThreads + 1;
+		final int chunkSize = ((values.length / stride + chunks - 1) / chunks) * stride;
+
+		final List<ConversionContext> contexts = Lists.newArrayList();
+		final List<Future<?>> futures = Lists.newArrayList();
+		final ExecutorService executor = getExecutor();
+
+		ConversionContext callerChunk = null;
+		int callerEnd = 0;
+		for (int start = 0; start < values.length; start += chunkSize) {
+			final ConversionContext child = parent.createChild();
+			contexts.add(child);
+			final int from = start;
+			final int to = Math.min(start + chunkSize, values.length);
+
+			if (callerChunk == null) {
+				callerChunk = child;
+				callerEnd = to;
+			} else {
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						child.convertRange(values, result, from, to);
+						return null;
+					}
+				}));
+			}
+		}
+
+		// workers read parent state, so we can't return before all of them are finished
+		Throwable failure = null;
+		try {
+			callerChunk.convertRange(values, result, 0, callerEnd);
+		} catch (Throwable t) {
+			failure = t;
+		}
+
+		boolean interrupted = false;
+		for (Future<?> future : futures) {
+			while (true) {
+				try {
+					future.get();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					if (failure == null) failure = e.getCause();
+					break;
+				}
+			}
+		}
+
+		if (interrupted) Thread.currentThread().interrupt();
+
+		if (failure instanceof ConversionContext.NotThreadSafeException) return null;
+		if (failure != null) throw Throwables.propagate(failure);
+
+		for (ConversionContext child : contexts)
+			parent.mergeChild(child);
+
+		return result;
+	}
+}
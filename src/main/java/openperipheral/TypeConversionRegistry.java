@@ -1,14 +1,18 @@
 package openperipheral;
 
-import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
 
 import openmods.Log;
+import openperipheral.api.IThreadSafeConverter;
 import openperipheral.api.ITypeConverter;
 import openperipheral.api.ITypeConvertersRegistry;
+import openperipheral.api.ITypedConverter;
 import openperipheral.converter.*;
 
 import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 import dan200.computercraft.api.lua.ILuaObject;
 
@@ -17,29 +21,43 @@ public class TypeConversionRegistry implements ITypeConvertersRegistry {
 
 	public static final TypeConversionRegistry INSTANCE = new TypeConversionRegistry();
 
-	private final Deque<ITypeConverter> converters = Lists.newLinkedList();
+	// copy-on-write, since registration is rare and conversions happen on many threads
+	private volatile ITypeConverter[] converters;
+
+	// converters that may handle values of given class, in registration order
+	private final ConcurrentMap<Class<?>, ITypeConverter[]> toLuaConverters = Maps.newConcurrentMap();
+
+	private final ConcurrentMap<Class<?>, Boolean> threadSafeClasses = Maps.newConcurrentMap();
 
 	private TypeConversionRegistry() {
+		List<ITypeConverter> converters = Lists.newArrayList();
 		converters.add(new ConverterGameProfile());
 		converters.add(new ConverterForgeDirection());
-		converters.add(new ConverterForgeDirection());
-		converters.add(new ConverterFluidTankInfo());
 		converters.add(new ConverterFluidTankInfo());
 		converters.add(new ConverterItemStack());
 
 		// DO NOT REORDER ANYTHING BELOW (unless you have good reason)
 		converters.add(new ConverterArray());
 		converters.add(new ConverterList());
+		converters.add(new ConverterShapedTable());
 		converters.add(new ConverterMap());
 		converters.add(new ConverterSet());
 		converters.add(new ConverterDefault());
 		converters.add(new ConverterNumber());
 		converters.add(new ConverterString());
+
+		this.converters = converters.toArray(new ITypeConverter[converters.size()]);
 	}
 
 	@Override
-	public void register(ITypeConverter converter) {
-		converters.addFirst(converter);
+	public synchronized void register(ITypeConverter converter) {
+		final ITypeConverter[] prev = converters;
+		ITypeConverter[] next = new ITypeConverter[prev.length + 1];
+		next[0] = converter;
+		System.arraycopy(prev, 0, next, 1, prev.length);
+		converters = next;
+		toLuaConverters.clear();
+		threadSafeClasses.clear();
 	}
 
 	@Override
@@ -57,21 +75,63 @@ public class TypeConversionRegistry implements ITypeConvertersRegistry {
 		return null;
 	}
 
-	@Override
-	public Object toLua(Object obj) {
-		if (obj == null || obj instanceof ILuaObject) return obj;
+	ITypeConverter[] getToLuaConverters(Class<?> cls) {
+		ITypeConverter[] result = toLuaConverters.get(cls);
+		if (result == null) {
+			final ITypeConverter[] all = converters;
+			List<ITypeConverter> applicable = Lists.newArrayList();
+			for (ITypeConverter converter : all)
+				if (!(converter instanceof ITypedConverter) || ((ITypedConverter)converter).isApplicable(cls)) applicable.add(converter);
 
-		for (ITypeConverter converter : converters) {
-			try {
-				Object response = converter.toLua(this, obj);
-				if (response != null) return response;
-			} catch (Throwable e) {
-				Log.warn(e, "Type converter %s failed", converter);
-				throw Throwables.propagate(e);
+			result = applicable.toArray(new ITypeConverter[applicable.size()]);
+			toLuaConverters.put(cls, result);
+			// new converter registered in meantime, entry may be stale
+			if (all != converters) toLuaConverters.remove(cls);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Values of given class are expected to be converted only by {@link IThreadSafeConverter}s.
+	 * First applicable typed converter is assumed to handle value, so converters after it are not checked.
+	 */
+	boolean isThreadSafe(Class<?> cls) {
+		Boolean result = threadSafeClasses.get(cls);
+		if (result == null) {
+			final ITypeConverter[] all = converters;
+			result = Boolean.FALSE;
+			for (ITypeConverter converter : getToLuaConverters(cls)) {
+				if (!(converter instanceof IThreadSafeConverter)) break;
+				if (converter instanceof ITypedConverter) {
+					result = Boolean.TRUE;
+					break;
+				}
 			}
+
+			threadSafeClasses.put(cls, result);
+			// new converter registered in meantime, entry may be stale
+			if (all != converters) threadSafeClasses.remove(cls);
 		}
 
-		// should never get here, since ConverterString is catch-all
-		throw new IllegalStateException("Conversion failed on value " + obj);
+		return result;
+	}
+
+	static boolean isLuaValue(Object obj) {
+		// basic Lua types (or already converted), no need to ask converters
+		return obj == null || obj instanceof ILuaObject || obj instanceof String || obj instanceof Double || obj instanceof Boolean || obj instanceof LuaArrayTable;
+	}
+
+	@Override
+	public Object toLua(Object obj) {
+		if (isLuaValue(obj)) return obj;
+		return new ConversionContext(this).toLua(obj);
+	}
+
+	/**
+	 * Converts collection (list, array or map), keeping only rows and fields selected by query
+	 */
+	public Object toLua(Object obj, ResultQuery query) {
+		return new ConversionContext(this).toLua(obj, query);
 	}
 }
@@ -61,6 +61,13 @@ public abstract class AdapterManager<A extends IAdapterBase, E extends IMethodEx
 		protected ClassMethodsListBuilder<IPeripheralMethodExecutor> createBuilder() {
 			return new PeripheralMethodsListBuilder();
 		}
+
+		@Override
+		protected void addSyntheticMethods(ClassMethodsListBuilder<IPeripheralMethodExecutor> builder) {
+			builder.addMethodsFromObject(new BatchCallHelper(builder.getMethodList()));
+			builder.addMethodsFromObject(new QueryCallHelper(builder.getMethodList()));
+			builder.addMethodsFromObject(new ConditionalCallHelper(builder.getMethodList()));
+		}
 	};
 
 	public static final AdapterManager<IPeripheralAdapter, IPeripheralMethodExecutor> peripherals = new AdapterManager<IPeripheralAdapter, IPeripheralMethodExecutor>() {
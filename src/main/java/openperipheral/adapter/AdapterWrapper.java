@@ -9,11 +9,9 @@ import java.util.Map;
 import openmods.Log;
 import openmods.utils.ReflectionHelper;
 import openperipheral.adapter.method.MethodDeclaration;
-import openperipheral.adapter.method.MethodDeclaration.CallWrap;
 import openperipheral.api.*;
 
 import com.google.common.base.Preconditions;
-import com.google.common.base.Throwables;
 import com.google.common.collect.*;
 
 public abstract class AdapterWrapper<E extends IMethodExecutor> implements IAdapterMethodsList<E> {
@@ -68,7 +66,7 @@ public abstract class AdapterWrapper<E extends IMethodExecutor> implements IAdap
 	protected abstract void nameDefaultParameters(MethodDeclaration decl);
 
 	protected interface MethodExecutorFactory<E extends IMethodExecutor> {
-		public E createExecutor(Method method, MethodDeclaration decl, Map<String, Method> proxyArgs);
+		public E createExecutor(Method method, MethodDeclaration decl, ProxyArgsBinder proxyArgs);
 	}
 
 	protected MethodDeclaration createDeclaration(Method method) {
@@ -98,27 +96,6 @@ public abstract class AdapterWrapper<E extends IMethodExecutor> implements IAdap
 		Preconditions.checkState(prev == null, "Duplicated proxy arg name '%s' in adapter '%s'", name, adapterClass);
 	}
 
-	protected static IMethodProxy createProxy(final Object target, final Method method) {
-		return new IMethodProxy() {
-			@SuppressWarnings("unchecked")
-			@Override
-			public <T> T call(Object... args) {
-				try {
-					return (T)method.invoke(target, args);
-				} catch (Throwable t) {
-					throw Throwables.propagate(t);
-				}
-			}
-		};
-	}
-
-	protected static CallWrap nameAdapterMethods(Object target, Map<String, Method> proxyArgs, CallWrap wrap) {
-		for (Map.Entry<String, Method> e : proxyArgs.entrySet())
-			wrap.setJavaArg(e.getKey(), createProxy(target, e.getValue()));
-
-		return wrap;
-	}
-
 	protected List<E> buildMethodList(boolean defaultIsFreeform, MethodExecutorFactory<E> factory) {
 		List<E> result = Lists.newArrayList();
 		final boolean clsIsFreeform = isFreeform(adapterClass, defaultIsFreeform);
@@ -150,8 +127,6 @@ public abstract class AdapterWrapper<E extends IMethodExecutor> implements IAdap
 			if (proxyArgs != null) for (ProxyArg arg : proxyArgs.value())
 				addProxyArgs(allProxyArgs, method.getName(), luaArgs, arg);
 
-			E exec = factory.createExecutor(method, decl, ImmutableMap.copyOf(allProxyArgs));
-
 			if (!isFreeform(method, clsIsFreeform)) {
 				final String[] methodPrefixes = getPrefixes(method, classPrefixes);
 				if (methodPrefixes != null) namesFromAnnotation(methodPrefixes, decl);
@@ -164,6 +139,8 @@ public abstract class AdapterWrapper<E extends IMethodExecutor> implements IAdap
 
 			decl.validate();
 
+			// executors are created after all names are assigned, so they can resolve argument slots
+			E exec = factory.createExecutor(method, decl, ProxyArgsBinder.create(decl, allProxyArgs));
 			result.add(exec);
 		}
 
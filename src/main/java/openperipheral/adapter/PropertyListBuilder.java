@@ -6,9 +6,12 @@ import java.util.List;
 import java.util.Map;
 
 import openperipheral.TypeConversionRegistry;
+import openperipheral.adapter.invoke.FieldAccessorFactory;
+import openperipheral.adapter.invoke.IFieldAccessor;
+import openperipheral.adapter.invoke.IFieldGetter;
 import openperipheral.api.*;
+import openperipheral.converter.FromLuaConverter;
 
-import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -21,29 +24,6 @@ import com.google.common.collect.Maps;
 
 public class PropertyListBuilder {
 
-	private static IPropertyCallback createDefaultCallback(final Object owner) {
-		return new IPropertyCallback() {
-
-			@Override
-			public void setField(Field field, Object value) {
-				try {
-					field.set(owner, value);
-				} catch (Throwable t) {
-					throw Throwables.propagate(t);
-				}
-			}
-
-			@Override
-			public Object getField(Field field) {
-				try {
-					return field.get(owner);
-				} catch (Throwable t) {
-					throw Throwables.propagate(t);
-				}
-			}
-		};
-	}
-
 	public static class PropertyExecutor implements IMethodExecutor {
 		private final FieldContext context;
 
@@ -62,7 +42,7 @@ public class PropertyListBuilder {
 		}
 
 		protected Object[] call(Object target, Object... args) {
-			return ArrayUtils.toArray(context.call(target, args));
+			return new Object[] { context.call(target, args) };
 		}
 	}
 
@@ -81,8 +61,6 @@ public class PropertyListBuilder {
 
 		public abstract Object call(Object target, Object... args);
 
-		protected abstract IPropertyCallback getCallback(Object target);
-
 		@Override
 		public List<String> getNames() {
 			return ImmutableList.of(name);
@@ -100,16 +78,27 @@ public class PropertyListBuilder {
 	private static final List<Object> NO_RETURNS = ImmutableList.of();
 
 	private abstract static class GetterContext extends FieldContext {
+		// numbers and booleans need no conversion (apart from widening numbers to double)
+		protected final boolean isPrimitive;
 
 		protected GetterContext(String capitalizedName, String description, LuaType type, Field field) {
 			super("get" + capitalizedName, description, type, field);
+			final Class<?> fieldType = field.getType();
+			this.isPrimitive = fieldType.isPrimitive() && fieldType != char.class;
 		}
 
+		protected abstract Object getValue(Object target) throws Exception;
+
 		@Override
 		public Object call(Object target, Object... args) {
-			Preconditions.checkArgument(args.length == 0, "Getter has no arguments");
-			Object result = getCallback(target).getField(field);
-			return TypeConversionRegistry.INSTANCE.toLua(result);
+			if (args.length != 0) throw new IllegalArgumentException("Getter has no arguments");
+			final Object result;
+			try {
+				result = getValue(target);
+			} catch (Exception e) {
+				throw Throwables.propagate(e);
+			}
+			return isPrimitive? result : TypeConversionRegistry.INSTANCE.toLua(result);
 		}
 
 		@Override
@@ -127,18 +116,25 @@ public class PropertyListBuilder {
 	}
 
 	private abstract static class SetterContext extends FieldContext {
+		private final FromLuaConverter converter;
 
 		protected SetterContext(String capitalizedName, String description, LuaType type, Field field) {
 			super("set" + capitalizedName, description, type, field);
+			this.converter = FromLuaConverter.forType(field.getType());
 		}
 
+		protected abstract void setValue(Object target, Object value) throws Exception;
+
 		@Override
 		public Object call(Object target, Object... args) {
-			Preconditions.checkArgument(args.length == 1, "Setter must have exactly one argument");
-			Object arg = args[0];
-			Object converted = TypeConversionRegistry.INSTANCE.fromLua(arg, field.getType());
-			Preconditions.checkNotNull(converted, "Invalid value type");
-			getCallback(target).setField(field, converted);
+			if (args.length != 1) throw new IllegalArgumentException("Setter must have exactly one argument");
+			Object converted = converter.convert(args[0]);
+			if (converted == null) throw new NullPointerException("Invalid value type");
+			try {
+				setValue(target, converted);
+			} catch (Exception e) {
+				throw Throwables.propagate(e);
+			}
 
 			return null;
 		}
@@ -163,27 +159,38 @@ public class PropertyListBuilder {
 	}
 
 	private static class DefaultGetterContext extends GetterContext {
-		protected DefaultGetterContext(String capitalizedName, String description, LuaType type, Field field) {
+		private final IFieldGetter accessor;
+
+		protected DefaultGetterContext(String capitalizedName, String description, LuaType type, Field field, IFieldGetter accessor) {
 			super(capitalizedName, description, type, field);
+			this.accessor = accessor;
 		}
 
 		@Override
-		protected IPropertyCallback getCallback(Object target) {
-			return createDefaultCallback(target);
+		protected Object getValue(Object target) throws Exception {
+			return accessor.get(target);
 		}
 	}
 
 	private static class DefaultSetterContext extends SetterContext {
-		protected DefaultSetterContext(String capitalizedName, String description, LuaType type, Field field) {
+		private final IFieldAccessor accessor;
+
+		protected DefaultSetterContext(String capitalizedName, String description, LuaType type, Field field, IFieldAccessor accessor) {
 			super(capitalizedName, description, type, field);
+			this.accessor = accessor;
 		}
 
 		@Override
-		protected IPropertyCallback getCallback(Object target) {
-			return createDefaultCallback(target);
+		protected void setValue(Object target, Object value) throws Exception {
+			accessor.set(target, value);
 		}
 	}
 
+	private static IPropertyCallback getCallback(Object target) {
+		Preconditions.checkArgument(target instanceof IPropertyCallback, "Invalid target. Probably not your fault");
+		return (IPropertyCallback)target;
+	}
+
 	private static class DelegatingGetterContext extends GetterContext {
 
 		protected DelegatingGetterContext(String capitalizedName, String description, LuaType type, Field field) {
@@ -191,9 +198,10 @@ public class PropertyListBuilder {
 		}
 
 		@Override
-		protected IPropertyCallback getCallback(Object target) {
-			Preconditions.checkArgument(target instanceof IPropertyCallback, "Invalid target. Probably not your fault");
-			return (IPropertyCallback)target;
+		protected Object getValue(Object target) {
+			Object result = getCallback(target).getField(field);
+			if (isPrimitive && result instanceof Number) return ((Number)result).doubleValue();
+			return result;
 		}
 	}
 
@@ -204,9 +212,8 @@ public class PropertyListBuilder {
 		}
 
 		@Override
-		protected IPropertyCallback getCallback(Object target) {
-			Preconditions.checkArgument(target instanceof IPropertyCallback, "Invalid target. Probably not your fault");
-			return (IPropertyCallback)target;
+		protected void setValue(Object target, Object value) {
+			getCallback(target).setField(field, value);
 		}
 	}
 
@@ -230,8 +237,8 @@ public class PropertyListBuilder {
 			getter = new DelegatingGetterContext(capitalizedName, getterDescription, type, field);
 			setter = readOnly? null : new DelegatingSetterContext(capitalizedName, setterDescription, type, field);
 		} else {
-			getter = new DefaultGetterContext(capitalizedName, getterDescription, type, field);
-			setter = readOnly? null : new DefaultSetterContext(capitalizedName, setterDescription, type, field);
+			getter = new DefaultGetterContext(capitalizedName, getterDescription, type, field, FieldAccessorFactory.createGetter(field));
+			setter = readOnly? null : new DefaultSetterContext(capitalizedName, setterDescription, type, field, FieldAccessorFactory.create(field));
 		}
 
 		return ImmutablePair.of(getter, setter);
@@ -0,0 +1,130 @@
+package openperipheral.adapter;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import openperipheral.adapter.invoke.IMethodInvoker;
+import openperipheral.adapter.invoke.MethodInvokerFactory;
+import openperipheral.adapter.method.MethodDeclaration;
+import openperipheral.adapter.method.MethodDeclaration.CallWrap;
+import openperipheral.api.IMethodProxy;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.primitives.Primitives;
+
+/**
+ * Fills {@link IMethodProxy} arguments of single adapter method.
+ * Invokers and argument slots are resolved once, so call only creates small view bound to target.
+ */
+public class ProxyArgsBinder {
+
+	public static final ProxyArgsBinder EMPTY = new ProxyArgsBinder(new int[0], new IMethodInvoker[0], new Class<?>[0][]);
+
+	private static class BoundMethodProxy implements IMethodProxy {
+		private final IMethodInvoker invoker;
+		private final Class<?>[] argTypes;
+		private final Object target;
+
+		private BoundMethodProxy(IMethodInvoker invoker, Class<?>[] argTypes, Object target) {
+			this.invoker = invoker;
+			this.argTypes = argTypes;
+			this.target = target;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T call(Object... args) {
+			try {
+				return (T)invoker.invoke(target, checkArgs(argTypes, args));
+			} catch (Exception e) {
+				throw Throwables.propagate(e);
+			}
+		}
+	}
+
+	// order of widening primitive conversions, char is handled separately
+	private static final Class<?>[] WIDENING = { byte.class, short.class, int.class, long.class, float.class, double.class };
+
+	private static int widthOf(Class<?> type) {
+		for (int i = 0; i < WIDENING.length; i++)
+			if (WIDENING[i] == type) return i;
+		return -1;
+	}
+
+	private static Object widen(Class<?> type, Object value) {
+		final Class<?> valueType = Primitives.unwrap(value.getClass());
+		final boolean isChar = valueType == char.class;
+		final int from = isChar? widthOf(int.class) : widthOf(valueType);
+		final int to = widthOf(type);
+		if (from < 0 || to < 0 || to < from || (to == from && !isChar)) throw new IllegalArgumentException(String.format("Can't convert %s to %s", value.getClass().getSimpleName(), type));
+
+		final Number number = isChar? Integer.valueOf((Character)value) : (Number)value;
+		if (type == short.class) return number.shortValue();
+		if (type == int.class) return number.intValue();
+		if (type == long.class) return number.longValue();
+		if (type == float.class) return number.floatValue();
+		return number.doubleValue();
+	}
+
+	/**
+	 * Generated invokers only cast arguments, so checks and widening done by {@link Method#invoke(Object, Object...)} must be repeated here
+	 */
+	private static Object[] checkArgs(Class<?>[] types, Object[] args) {
+		Preconditions.checkArgument(args.length == types.length, "Invalid number of arguments, expected %s, got %s", types.length, args.length);
+
+		Object[] result = args;
+		for (int i = 0; i < types.length; i++) {
+			final Class<?> type = types[i];
+			final Object arg = args[i];
+			if (type.isPrimitive()) {
+				Preconditions.checkArgument(arg != null, "Argument %s can't be null", i);
+				if (Primitives.wrap(type) != arg.getClass()) {
+					// caller may still use its array
+					if (result == args) result = args.clone();
+					result[i] = widen(type, arg);
+				}
+			} else {
+				Preconditions.checkArgument(arg == null || type.isInstance(arg), "Argument %s must be %s, got %s", i, type.getName(), arg != null? arg.getClass().getName() : null);
+			}
+		}
+
+		return result;
+	}
+
+	private final int[] slots;
+	private final IMethodInvoker[] invokers;
+	private final Class<?>[][] argTypes;
+
+	private ProxyArgsBinder(int[] slots, IMethodInvoker[] invokers, Class<?>[][] argTypes) {
+		this.slots = slots;
+		this.invokers = invokers;
+		this.argTypes = argTypes;
+	}
+
+	public static ProxyArgsBinder create(MethodDeclaration decl, Map<String, Method> proxyArgs) {
+		if (proxyArgs.isEmpty()) return EMPTY;
+
+		final int count = proxyArgs.size();
+		int[] slots = new int[count];
+		IMethodInvoker[] invokers = new IMethodInvoker[count];
+		Class<?>[][] argTypes = new Class<?>[count][];
+
+		int i = 0;
+		for (Map.Entry<String, Method> e : proxyArgs.entrySet()) {
+			slots[i] = decl.getJavaArgSlot(e.getKey());
+			invokers[i] = MethodInvokerFactory.create(e.getValue());
+			argTypes[i] = e.getValue().getParameterTypes();
+			i++;
+		}
+
+		return new ProxyArgsBinder(slots, invokers, argTypes);
+	}
+
+	public CallWrap bind(Object target, CallWrap wrap) {
+		for (int i = 0; i < slots.length; i++)
+			wrap.setJavaArg(slots[i], new BoundMethodProxy(invokers[i], argTypes[i], target));
+
+		return wrap;
+	}
+}
@@ -0,0 +1,186 @@
+package openperipheral.adapter;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.minecraft.tileentity.TileEntity;
+import openmods.utils.WorldUtils;
+import openperipheral.Config;
+import openperipheral.api.Cached;
+import openperipheral.api.IWorldProvider;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Stores already converted results of single method marked with {@link Cached}. Entries are keyed by target identity and Lua arguments and expire after declared number of server ticks.
+ * Methods that receive calling computer are also keyed by computer identity, so results are never shared between computers.
+ * Stored entries reference targets and computers weakly, so cache never keeps unloaded tile entities alive.
+ */
+public class ResultCache {
+
+	private static final List<ResultCache> ALL_CACHES = new CopyOnWriteArrayList<ResultCache>();
+
+	private abstract static class Key {
+		private final Object[] args;
+		private final int hash;
+
+		private Key(Object target, Object caller, Object[] args) {
+			this.args = args;
+			this.hash = 31 * (31 * System.identityHashCode(target) + System.identityHashCode(caller)) + Arrays.hashCode(args);
+		}
+
+		protected abstract Object getTarget();
+
+		protected abstract Object getCaller();
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) return false;
+			final Key other = (Key)obj;
+			final Object target = getTarget();
+			// collected targets never match, entry will be evicted on expiration
+			return target != null && target == other.getTarget() && getCaller() == other.getCaller() && Arrays.equals(args, other.args);
+		}
+	}
+
+	// used only for lookups, so no reference object is allocated per call
+	private static class LookupKey extends Key {
+		private final Object target;
+		private final Object caller;
+
+		private LookupKey(Object target, Object caller, Object[] args) {
+			super(target, caller, args);
+			this.target = target;
+			this.caller = caller;
+		}
+
+		@Override
+		protected Object getTarget() {
+			return target;
+		}
+
+		@Override
+		protected Object getCaller() {
+			return caller;
+		}
+	}
+
+	private static class StoredKey extends Key {
+		private final WeakReference<Object> target;
+		private final WeakReference<Object> caller;
+
+		private StoredKey(Object target, Object caller, Object[] args) {
+			super(target, caller, args);
+			this.target = new WeakReference<Object>(target);
+			this.caller = caller != null? new WeakReference<Object>(caller) : null;
+		}
+
+		@Override
+		protected Object getTarget() {
+			return target.get();
+		}
+
+		@Override
+		protected Object getCaller() {
+			return caller != null? caller.get() : null;
+		}
+	}
+
+	private static class Entry {
+		private final Object[] result;
+		private final long expires;
+
+		private Entry(Object[] result, long expires) {
+			this.result = result;
+			this.expires = expires;
+		}
+	}
+
+	public final Method method;
+
+	private final int ticks;
+
+	private final Cache<Key, Entry> cache;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private ResultCache(Method method, int ticks) {
+		this.method = method;
+		this.ticks = ticks;
+		this.cache = CacheBuilder.newBuilder()
+				.maximumSize(Config.resultCacheSize)
+				.expireAfterWrite(1, TimeUnit.MINUTES)
+				.build();
+	}
+
+	public static ResultCache create(Method method) {
+		Cached cached = method.getAnnotation(Cached.class);
+		if (cached == null || Config.resultCacheSize <= 0) return null;
+
+		ResultCache result = new ResultCache(method, Math.max(cached.ticks(), 1));
+		ALL_CACHES.add(result);
+		return result;
+	}
+
+	private static boolean isValid(Object target) {
+		if (target instanceof TileEntity) return WorldUtils.isTileEntityValid((TileEntity)target);
+		if (target instanceof IWorldProvider) return ((IWorldProvider)target).isValid();
+		return true;
+	}
+
+	/**
+	 * @param caller
+	 *            computer passed to method or null, if method does not receive it
+	 * @return cached results or null, if there are no valid results for this call
+	 */
+	public Object[] get(Object target, Object caller, Object[] args) {
+		final Key key = new LookupKey(target, caller, args);
+		final Entry entry = cache.getIfPresent(key);
+
+		if (entry != null) {
+			if (entry.expires > ServerTickCounter.INSTANCE.getCurrentTick() && isValid(target)) {
+				hits.incrementAndGet();
+				// result array is owned by caller
+				return entry.result.clone();
+			}
+
+			cache.invalidate(key);
+		}
+
+		misses.incrementAndGet();
+		return null;
+	}
+
+	public void put(Object target, Object caller, Object[] args, Object[] result) {
+		if (isValid(target)) cache.put(new StoredKey(target, caller, args.clone()), new Entry(result, ServerTickCounter.INSTANCE.getCurrentTick() + ticks));
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public long getSize() {
+		return cache.size();
+	}
+
+	public static List<ResultCache> listCaches() {
+		return ALL_CACHES;
+	}
+}
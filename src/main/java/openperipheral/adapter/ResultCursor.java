@@ -0,0 +1,130 @@
+package openperipheral.adapter;
+
+import java.lang.reflect.Array;
+import java.util.*;
+
+import openperipheral.Config;
+import openperipheral.api.*;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.common.gameevent.TickEvent;
+import cpw.mods.fml.common.gameevent.TickEvent.Phase;
+import dan200.computercraft.api.lua.ILuaObject;
+
+/**
+ * Lua-visible view of large result of method marked with {@link CursorResult}. Values are converted only when requested by {@link #next(Integer)}
+ */
+public class ResultCursor {
+
+	private static final Set<ResultCursor> OPEN_CURSORS = Sets.newSetFromMap(Maps.<ResultCursor, Boolean> newConcurrentMap());
+
+	public static class ExpiryHandler {
+		private static final int CHECK_INTERVAL = 20;
+
+		@SubscribeEvent
+		public void onServerTick(TickEvent.ServerTickEvent evt) {
+			if (evt.phase != Phase.END) return;
+
+			final long currentTick = ServerTickCounter.INSTANCE.getCurrentTick();
+			if (currentTick % CHECK_INTERVAL != 0) return;
+
+			for (ResultCursor cursor : OPEN_CURSORS)
+				if (currentTick - cursor.lastAccess > Config.cursorExpireTicks) cursor.close();
+		}
+	}
+
+	private List<?> values;
+
+	private final boolean isMap;
+
+	private int position;
+
+	private volatile long lastAccess;
+
+	private ResultCursor(List<?> values, boolean isMap) {
+		this.values = values;
+		this.isMap = isMap;
+		this.lastAccess = ServerTickCounter.INSTANCE.getCurrentTick();
+	}
+
+	private static List<?> primitiveArrayToList(final Object array) {
+		return new AbstractList<Object>() {
+			@Override
+			public Object get(int index) {
+				return Array.get(array, index);
+			}
+
+			@Override
+			public int size() {
+				return Array.getLength(array);
+			}
+		};
+	}
+
+	public static ILuaObject wrap(Object value) {
+		if (value == null) return null;
+
+		final ResultCursor cursor;
+		if (value instanceof Map) cursor = new ResultCursor(Lists.newArrayList(((Map<?, ?>)value).entrySet()), true);
+		else if (value instanceof List) cursor = new ResultCursor((List<?>)value, false);
+		else if (value instanceof Iterable) cursor = new ResultCursor(Lists.newArrayList((Iterable<?>)value), false);
+		else if (value instanceof Object[]) cursor = new ResultCursor(Arrays.asList((Object[])value), false);
+		else if (value.getClass().isArray()) cursor = new ResultCursor(primitiveArrayToList(value), false);
+		else throw new IllegalArgumentException(String.format("Value of type %s can't be returned as cursor", value.getClass()));
+
+		OPEN_CURSORS.add(cursor);
+		return AdapterManager.wrapObject(cursor);
+	}
+
+	private List<?> getValues() {
+		Preconditions.checkState(values != null, "Cursor is closed or expired");
+		lastAccess = ServerTickCounter.INSTANCE.getCurrentTick();
+		return values;
+	}
+
+	@LuaCallable(returnTypes = LuaType.TABLE, description = "Get next values (tables for lists, key-value pairs for maps). Returns nil when there are no more values")
+	public synchronized Object next(@Optionals @Arg(name = "count", type = LuaType.NUMBER, description = "Maximum number of values (default: 1)") Integer count) {
+		final List<?> values = getValues();
+		final int size = values.size();
+		if (position >= size) return null;
+
+		final int n = (count != null)? count : 1;
+		Preconditions.checkArgument(n > 0, "Count must be positive");
+
+		final int end = Math.min(position + n, size);
+		final List<?> page = values.subList(position, end);
+		position = end;
+
+		if (!isMap) return page;
+
+		Map<Object, Object> result = Maps.newLinkedHashMap();
+		for (Object e : page) {
+			final Map.Entry<?, ?> entry = (Map.Entry<?, ?>)e;
+			result.put(entry.getKey(), entry.getValue());
+		}
+		return result;
+	}
+
+	@LuaCallable(returnTypes = LuaType.NUMBER, description = "Get total number of values")
+	public synchronized int count() {
+		return getValues().size();
+	}
+
+	@LuaCallable(description = "Set position of next returned value (1-based)")
+	public synchronized void seek(@Arg(name = "position", type = LuaType.NUMBER) int position) {
+		final int size = getValues().size();
+		Preconditions.checkArgument(position >= 1 && position <= size + 1, "Position out of range [1, %s]", size + 1);
+		this.position = position - 1;
+	}
+
+	@LuaCallable(description = "Release cursor. All other calls will fail after that")
+	public synchronized void close() {
+		values = null;
+		OPEN_CURSORS.remove(this);
+	}
+}
@@ -0,0 +1,23 @@
+package openperipheral.adapter;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.common.gameevent.TickEvent;
+import cpw.mods.fml.common.gameevent.TickEvent.Phase;
+
+public class ServerTickCounter {
+
+	public static final ServerTickCounter INSTANCE = new ServerTickCounter();
+
+	private volatile long currentTick;
+
+	private ServerTickCounter() {}
+
+	public long getCurrentTick() {
+		return currentTick;
+	}
+
+	@SubscribeEvent
+	public void onServerTick(TickEvent.ServerTickEvent evt) {
+		if (evt.phase == Phase.END) currentTick++;
+	}
+}
@@ -12,6 +12,8 @@ public abstract class ClassMethodsComposer<E extends IMethodExecutor> {
 
 	protected abstract ClassMethodsListBuilder<E> createBuilder();
 
+	protected void addSyntheticMethods(ClassMethodsListBuilder<E> builder) {}
+
 	public ClassMethodsList<E> createMethodsList(Class<?> cls) {
 		ClassMethodsListBuilder<E> builder = createBuilder();
 		final List<Class<?>> classHierarchy = Lists.reverse(listSuperClasses(cls));
@@ -30,6 +32,7 @@ public abstract class ClassMethodsComposer<E extends IMethodExecutor> {
 
 		builder.addMethodsFromObject(new MethodsListerHelper<E>(builder.getMethodList()));
 		if (Config.devMethods) builder.addMethodsFromObject(new LuaReflectionHelper());
+		addSyntheticMethods(builder);
 
 		return builder.create();
 	}
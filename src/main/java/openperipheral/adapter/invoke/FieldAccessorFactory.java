@@ -0,0 +1,33 @@
+package openperipheral.adapter.invoke;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import openmods.Log;
+import openperipheral.Config;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Generated accessors are cached per class loader of field owner (see {@link InvokerClassGenerator}), reflection ones are created on every call.
+ */
+public class FieldAccessorFactory {
+
+	public static IFieldGetter createGetter(Field field) {
+		if (Config.generateInvokers && InvokerClassGenerator.canGenerate(field)) {
+			try {
+				return InvokerClassGenerator.generate(field);
+			} catch (Throwable t) {
+				Log.warn(t, "Failed to generate accessor for field %s, falling back to reflection", field);
+			}
+		}
+
+		return ReflectionFieldAccessor.create(field);
+	}
+
+	public static IFieldAccessor create(Field field) {
+		Preconditions.checkArgument(!Modifier.isFinal(field.getModifiers()), "Can't create setter for final field %s", field);
+		// accessors of non-final fields always implement setter
+		return (IFieldAccessor)createGetter(field);
+	}
+}
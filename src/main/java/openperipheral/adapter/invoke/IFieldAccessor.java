@@ -0,0 +1,9 @@
+package openperipheral.adapter.invoke;
+
+/**
+ * Reads and writes single, fixed field. Never created for final fields.
+ * Values passed to setter must be already converted to field type.
+ */
+public interface IFieldAccessor extends IFieldGetter {
+	public void set(Object target, Object value) throws Exception;
+}
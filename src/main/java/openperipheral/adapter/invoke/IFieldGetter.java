@@ -0,0 +1,8 @@
+package openperipheral.adapter.invoke;
+
+/**
+ * Reads single, fixed field. Values of numeric primitive fields are returned as {@link Double}, same as Lua sees them.
+ */
+public interface IFieldGetter {
+	public Object get(Object target) throws Exception;
+}
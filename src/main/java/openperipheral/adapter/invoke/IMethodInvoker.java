@@ -0,0 +1,8 @@
+package openperipheral.adapter.invoke;
+
+/**
+ * Calls single, fixed Java method. Arguments must be already converted to types expected by target method.
+ */
+public interface IMethodInvoker {
+	public Object invoke(Object target, Object[] args) throws Exception;
+}
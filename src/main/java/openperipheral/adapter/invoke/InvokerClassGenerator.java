@@ -0,0 +1,290 @@
+package openperipheral.adapter.invoke;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Generates small, single-method classes that call target method directly (i.e. without {@link Method#invoke(Object, Object...)}).
+ * Same is done for fields, with {@link IFieldAccessor} classes using plain field instructions (only {@link IFieldGetter} for final fields).
+ * Generated classes are defined in child loader of target class loader, so they can only access public members.
+ */
+public class InvokerClassGenerator implements Opcodes {
+
+	private static final String OBJECT = Type.getInternalName(Object.class);
+
+	private static final String INVOKER = Type.getInternalName(IMethodInvoker.class);
+
+	private static final String INVOKE_DESC = Type.getMethodDescriptor(Type.getType(Object.class), Type.getType(Object.class), Type.getType(Object[].class));
+
+	private static final String ACCESSOR = Type.getInternalName(IFieldAccessor.class);
+
+	private static final String GETTER = Type.getInternalName(IFieldGetter.class);
+
+	private static final String GET_DESC = Type.getMethodDescriptor(Type.getType(Object.class), Type.getType(Object.class));
+
+	private static final String SET_DESC = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(Object.class), Type.getType(Object.class));
+
+	private static final String CLASS_PREFIX = "openperipheral.generated.Invoker$";
+
+	private static final String ACCESSOR_CLASS_PREFIX = "openperipheral.generated.Accessor$";
+
+	private static class InvokerClassLoader extends ClassLoader {
+		// kept in loader, so cached invokers don't outlive classes they call
+		private final Map<Method, IMethodInvoker> invokers = Maps.newHashMap();
+		private final Map<Field, IFieldGetter> accessors = Maps.newHashMap();
+
+		private InvokerClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		private Class<?> define(String name, byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+
+	// child loader references its parent, so it must not be held strongly - otherwise parent would never be removed from weak map.
+	// Generated classes keep their loader alive as long as they are used
+	private static final Map<ClassLoader, WeakReference<InvokerClassLoader>> LOADERS = new WeakHashMap<ClassLoader, WeakReference<InvokerClassLoader>>();
+
+	private static final AtomicInteger COUNTER = new AtomicInteger();
+
+	private static synchronized InvokerClassLoader getLoader(ClassLoader parent) {
+		final WeakReference<InvokerClassLoader> ref = LOADERS.get(parent);
+		InvokerClassLoader loader = ref != null? ref.get() : null;
+		if (loader == null) {
+			loader = new InvokerClassLoader(parent);
+			LOADERS.put(parent, new WeakReference<InvokerClassLoader>(loader));
+		}
+		return loader;
+	}
+
+	private static boolean isAccessible(Class<?> cls) {
+		while (cls.isArray())
+			cls = cls.getComponentType();
+		return cls.isPrimitive() || Modifier.isPublic(cls.getModifiers());
+	}
+
+	private static boolean canSeeInterface(ClassLoader loader, Class<?> intf) {
+		try {
+			return Class.forName(intf.getName(), false, loader) == intf;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	public static boolean canGenerate(Method method) {
+		final Class<?> owner = method.getDeclaringClass();
+		if (!Modifier.isPublic(method.getModifiers()) || !isAccessible(owner)) return false;
+
+		for (Class<?> arg : method.getParameterTypes())
+			if (!isAccessible(arg)) return false;
+
+		final ClassLoader loader = owner.getClassLoader();
+		return loader != null && canSeeInterface(loader, IMethodInvoker.class);
+	}
+
+	public static boolean canGenerate(Field field) {
+		final Class<?> owner = field.getDeclaringClass();
+		final int modifiers = field.getModifiers();
+		if (!Modifier.isPublic(modifiers) || Modifier.isStatic(modifiers)) return false;
+		if (!isAccessible(owner) || !isAccessible(field.getType())) return false;
+
+		final ClassLoader loader = owner.getClassLoader();
+		return loader != null && canSeeInterface(loader, IFieldAccessor.class);
+	}
+
+	/**
+	 * Returns invoker already generated for this method or creates new one
+	 */
+	public static synchronized IMethodInvoker generate(Method method) throws Exception {
+		final InvokerClassLoader loader = getLoader(method.getDeclaringClass().getClassLoader());
+		IMethodInvoker invoker = loader.invokers.get(method);
+		if (invoker == null) {
+			final String clsName = CLASS_PREFIX + COUNTER.incrementAndGet() + "$" + method.getName();
+			byte[] bytes = createClass(clsName.replace('.', '/'), method);
+			Class<?> cls = loader.define(clsName, bytes);
+			invoker = (IMethodInvoker)cls.newInstance();
+			loader.invokers.put(method, invoker);
+		}
+
+		return invoker;
+	}
+
+	/**
+	 * Returns accessor already generated for this field or creates new one
+	 */
+	public static synchronized IFieldGetter generate(Field field) throws Exception {
+		final InvokerClassLoader loader = getLoader(field.getDeclaringClass().getClassLoader());
+		IFieldGetter accessor = loader.accessors.get(field);
+		if (accessor == null) {
+			final String clsName = ACCESSOR_CLASS_PREFIX + COUNTER.incrementAndGet() + "$" + field.getName();
+			byte[] bytes = createClass(clsName.replace('.', '/'), field);
+			Class<?> cls = loader.define(clsName, bytes);
+			accessor = (IFieldGetter)cls.newInstance();
+			loader.accessors.put(field, accessor);
+		}
+
+		return accessor;
+	}
+
+	private static void writeConstructor(ClassWriter writer) {
+		MethodVisitor init = writer.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		init.visitCode();
+		init.visitVarInsn(ALOAD, 0);
+		init.visitMethodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+		init.visitInsn(RETURN);
+		init.visitMaxs(0, 0);
+		init.visitEnd();
+	}
+
+	private static byte[] createClass(String internalName, Method method) {
+		ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		writer.visit(V1_6, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, internalName, null, OBJECT, new String[] { INVOKER });
+
+		writeConstructor(writer);
+
+		{
+			MethodVisitor invoke = writer.visitMethod(ACC_PUBLIC | ACC_FINAL, "invoke", INVOKE_DESC, null, new String[] { Type.getInternalName(Exception.class) });
+			invoke.visitCode();
+			writeInvokeBody(invoke, method);
+			invoke.visitMaxs(0, 0);
+			invoke.visitEnd();
+		}
+
+		writer.visitEnd();
+		return writer.toByteArray();
+	}
+
+	private static byte[] createClass(String internalName, Field field) {
+		final boolean isFinal = Modifier.isFinal(field.getModifiers());
+		ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		writer.visit(V1_6, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, internalName, null, OBJECT, new String[] { isFinal? GETTER : ACCESSOR });
+
+		writeConstructor(writer);
+
+		final String exception = Type.getInternalName(Exception.class);
+		final String ownerName = Type.getInternalName(field.getDeclaringClass());
+		final String fieldDesc = Type.getDescriptor(field.getType());
+
+		{
+			MethodVisitor get = writer.visitMethod(ACC_PUBLIC | ACC_FINAL, "get", GET_DESC, null, new String[] { exception });
+			get.visitCode();
+			get.visitVarInsn(ALOAD, 1);
+			get.visitTypeInsn(CHECKCAST, ownerName);
+			get.visitFieldInsn(GETFIELD, ownerName, field.getName(), fieldDesc);
+			boxForLua(get, field.getType());
+			get.visitInsn(ARETURN);
+			get.visitMaxs(0, 0);
+			get.visitEnd();
+		}
+
+		if (!isFinal) {
+			MethodVisitor set = writer.visitMethod(ACC_PUBLIC | ACC_FINAL, "set", SET_DESC, null, new String[] { exception });
+			set.visitCode();
+			set.visitVarInsn(ALOAD, 1);
+			set.visitTypeInsn(CHECKCAST, ownerName);
+			set.visitVarInsn(ALOAD, 2);
+			unbox(set, field.getType());
+			set.visitFieldInsn(PUTFIELD, ownerName, field.getName(), fieldDesc);
+			set.visitInsn(RETURN);
+			set.visitMaxs(0, 0);
+			set.visitEnd();
+		}
+
+		writer.visitEnd();
+		return writer.toByteArray();
+	}
+
+	private static void writeInvokeBody(MethodVisitor mv, Method method) {
+		final Class<?> owner = method.getDeclaringClass();
+		final String ownerName = Type.getInternalName(owner);
+		final boolean isStatic = Modifier.isStatic(method.getModifiers());
+
+		if (!isStatic) {
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitTypeInsn(CHECKCAST, ownerName);
+		}
+
+		final Class<?>[] args = method.getParameterTypes();
+		for (int i = 0; i < args.length; i++) {
+			mv.visitVarInsn(ALOAD, 2);
+			pushInt(mv, i);
+			mv.visitInsn(AALOAD);
+			unbox(mv, args[i]);
+		}
+
+		final String desc = Type.getMethodDescriptor(method);
+		if (isStatic) mv.visitMethodInsn(INVOKESTATIC, ownerName, method.getName(), desc, owner.isInterface());
+		else if (owner.isInterface()) mv.visitMethodInsn(INVOKEINTERFACE, ownerName, method.getName(), desc, true);
+		else mv.visitMethodInsn(INVOKEVIRTUAL, ownerName, method.getName(), desc, false);
+
+		box(mv, method.getReturnType());
+		mv.visitInsn(ARETURN);
+	}
+
+	private static void pushInt(MethodVisitor mv, int value) {
+		if (value <= 5) mv.visitInsn(ICONST_0 + value);
+		else if (value <= Byte.MAX_VALUE) mv.visitIntInsn(BIPUSH, value);
+		else mv.visitIntInsn(SIPUSH, value);
+	}
+
+	private static Class<?> getWrapper(Class<?> primitive) {
+		if (primitive == int.class) return Integer.class;
+		if (primitive == long.class) return Long.class;
+		if (primitive == double.class) return Double.class;
+		if (primitive == float.class) return Float.class;
+		if (primitive == boolean.class) return Boolean.class;
+		if (primitive == byte.class) return Byte.class;
+		if (primitive == short.class) return Short.class;
+		if (primitive == char.class) return Character.class;
+		throw new IllegalArgumentException("Not primitive type: " + primitive);
+	}
+
+	public static void unbox(MethodVisitor mv, Class<?> type) {
+		if (type.isPrimitive()) {
+			final String wrapper = Type.getInternalName(getWrapper(type));
+			final Type primitive = Type.getType(type);
+			mv.visitTypeInsn(CHECKCAST, wrapper);
+			mv.visitMethodInsn(INVOKEVIRTUAL, wrapper, primitive.getClassName() + "Value", "()" + primitive.getDescriptor(), false);
+		} else if (type != Object.class) {
+			mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+		}
+	}
+
+	private static void boxForLua(MethodVisitor mv, Class<?> type) {
+		if (type == int.class || type == short.class || type == byte.class) {
+			mv.visitInsn(I2D);
+			box(mv, double.class);
+		} else if (type == long.class) {
+			mv.visitInsn(L2D);
+			box(mv, double.class);
+		} else if (type == float.class) {
+			mv.visitInsn(F2D);
+			box(mv, double.class);
+		} else {
+			box(mv, type);
+		}
+	}
+
+	public static void box(MethodVisitor mv, Class<?> type) {
+		if (type == void.class) {
+			mv.visitInsn(ACONST_NULL);
+		} else if (type.isPrimitive()) {
+			final Class<?> wrapper = getWrapper(type);
+			final String desc = Type.getMethodDescriptor(Type.getType(wrapper), Type.getType(type));
+			mv.visitMethodInsn(INVOKESTATIC, Type.getInternalName(wrapper), "valueOf", desc, false);
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package openperipheral.adapter.invoke;
+
+import java.lang.reflect.Method;
+
+import openmods.Log;
+import openperipheral.Config;
+
+/**
+ * Generated invokers are cached per class loader of method owner (see {@link InvokerClassGenerator}), so they can be unloaded together with it.
+ * Reflection invokers are cheap and not cached.
+ */
+public class MethodInvokerFactory {
+
+	public static IMethodInvoker create(Method method) {
+		if (Config.generateInvokers && InvokerClassGenerator.canGenerate(method)) {
+			try {
+				return InvokerClassGenerator.generate(method);
+			} catch (Throwable t) {
+				Log.warn(t, "Failed to generate invoker for method %s, falling back to reflection", method);
+			}
+		}
+
+		return new ReflectionMethodInvoker(method);
+	}
+}
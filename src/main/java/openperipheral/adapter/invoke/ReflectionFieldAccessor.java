@@ -0,0 +1,96 @@
+package openperipheral.adapter.invoke;
+
+import java.lang.reflect.Field;
+
+public class ReflectionFieldAccessor implements IFieldAccessor {
+
+	private static class IntFieldAccessor extends ReflectionFieldAccessor {
+		private IntFieldAccessor(Field field) {
+			super(field);
+		}
+
+		@Override
+		public Object get(Object target) throws Exception {
+			return Double.valueOf(field.getInt(target));
+		}
+
+		@Override
+		public void set(Object target, Object value) throws Exception {
+			field.setInt(target, (Integer)value);
+		}
+	}
+
+	private static class DoubleFieldAccessor extends ReflectionFieldAccessor {
+		private DoubleFieldAccessor(Field field) {
+			super(field);
+		}
+
+		@Override
+		public Object get(Object target) throws Exception {
+			return Double.valueOf(field.getDouble(target));
+		}
+
+		@Override
+		public void set(Object target, Object value) throws Exception {
+			field.setDouble(target, (Double)value);
+		}
+	}
+
+	private static class BooleanFieldAccessor extends ReflectionFieldAccessor {
+		private BooleanFieldAccessor(Field field) {
+			super(field);
+		}
+
+		@Override
+		public Object get(Object target) throws Exception {
+			return Boolean.valueOf(field.getBoolean(target));
+		}
+
+		@Override
+		public void set(Object target, Object value) throws Exception {
+			field.setBoolean(target, (Boolean)value);
+		}
+	}
+
+	private static class NumberFieldAccessor extends ReflectionFieldAccessor {
+		private NumberFieldAccessor(Field field) {
+			super(field);
+		}
+
+		@Override
+		public Object get(Object target) throws Exception {
+			return Double.valueOf(field.getDouble(target));
+		}
+	}
+
+	protected final Field field;
+
+	protected ReflectionFieldAccessor(Field field) {
+		this.field = field;
+	}
+
+	public static ReflectionFieldAccessor create(Field field) {
+		field.setAccessible(true);
+		final Class<?> type = field.getType();
+		if (type == int.class) return new IntFieldAccessor(field);
+		if (type == double.class) return new DoubleFieldAccessor(field);
+		if (type == boolean.class) return new BooleanFieldAccessor(field);
+		if (type.isPrimitive() && type != char.class) return new NumberFieldAccessor(field);
+		return new ReflectionFieldAccessor(field);
+	}
+
+	@Override
+	public Object get(Object target) throws Exception {
+		return field.get(target);
+	}
+
+	@Override
+	public void set(Object target, Object value) throws Exception {
+		field.set(target, value);
+	}
+
+	@Override
+	public String toString() {
+		return "reflection accessor for " + field;
+	}
+}
@@ -0,0 +1,30 @@
+package openperipheral.adapter.invoke;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import com.google.common.base.Throwables;
+
+public class ReflectionMethodInvoker implements IMethodInvoker {
+
+	private final Method method;
+
+	public ReflectionMethodInvoker(Method method) {
+		this.method = method;
+	}
+
+	@Override
+	public Object invoke(Object target, Object[] args) throws Exception {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			Throwable wrapper = e.getCause();
+			throw Throwables.propagate(wrapper != null? wrapper : e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "reflection invoker for " + method;
+	}
+}
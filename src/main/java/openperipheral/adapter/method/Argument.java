@@ -1,13 +1,11 @@
 package openperipheral.adapter.method;
 
-import java.util.Iterator;
 import java.util.Map;
 
-import openperipheral.TypeConversionRegistry;
 import openperipheral.adapter.IDescriptable;
 import openperipheral.api.LuaType;
+import openperipheral.converter.FromLuaConverter;
 
-import com.google.common.base.Preconditions;
 import com.google.common.collect.Maps;
 
 public class Argument {
@@ -16,6 +14,7 @@ public class Argument {
 	public final LuaType luaType;
 	public final Class<?> javaType;
 	final int javaArgIndex;
+	protected final FromLuaConverter converter;
 
 	public Argument(String name, String description, LuaType luaType, Class<?> javaType, int javaArgIndex) {
 		this.name = name;
@@ -23,26 +22,37 @@ public class Argument {
 		this.luaType = luaType;
 		this.javaArgIndex = javaArgIndex;
 		this.javaType = getArgType(javaType);
+		this.converter = FromLuaConverter.forType(this.javaType);
 	}
 
 	protected Class<?> getArgType(Class<?> javaArgClass) {
 		return javaArgClass;
 	}
 
-	public Object convert(Iterator<Object> args) {
-		Preconditions.checkState(args.hasNext(), "Not enough arguments, first missing: %s", name);
-		Object arg = args.next();
-		Preconditions.checkNotNull(arg, "Argument %s cannot be null", name);
+	// Preconditions are not used in conversion methods, since varargs would allocate on every call
+
+	protected void checkArgCount(Object[] args, int index) {
+		if (index >= args.length) throw new IllegalStateException(String.format("Not enough arguments, first missing: %s", name));
+	}
+
+	public Object convert(Object[] args, int index) {
+		checkArgCount(args, index);
+		Object arg = args[index];
+		if (arg == null) throw new NullPointerException(String.format("Argument %s cannot be null", name));
 		return convertSingleArg(arg);
 	}
 
 	protected final Object convertSingleArg(Object o) {
 		if (o == null) return null;
-		Object converted = TypeConversionRegistry.INSTANCE.fromLua(o, javaType);
-		Preconditions.checkNotNull(converted, "Failed to convert arg '%s' value '%s' to '%s'", name, o, javaType.getSimpleName());
+		Object converted = converter.convert(o);
+		if (converted == null) throw conversionFailed(o);
 		return converted;
 	}
 
+	protected RuntimeException conversionFailed(Object o) {
+		return new NullPointerException(String.format("Failed to convert arg '%s' value '%s' to '%s'", name, o, javaType.getSimpleName()));
+	}
+
 	public Map<String, Object> describe() {
 		Map<String, Object> result = Maps.newHashMap();
 		result.put(IDescriptable.TYPE, luaType.toString());
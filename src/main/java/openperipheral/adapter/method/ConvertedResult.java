@@ -0,0 +1,10 @@
+package openperipheral.adapter.method;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks internal methods that return values already converted to Lua types (i.e. results of other calls), so they are returned without second conversion.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConvertedResult {}
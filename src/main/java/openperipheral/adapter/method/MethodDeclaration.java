@@ -1,19 +1,19 @@
 package openperipheral.adapter.method;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.Callable;
 
-import openmods.Log;
 import openmods.utils.AnnotationMap;
 import openmods.utils.ReflectionHelper;
 import openperipheral.TypeConversionRegistry;
 import openperipheral.adapter.IDescriptable;
+import openperipheral.adapter.ResultCursor;
+import openperipheral.adapter.invoke.IMethodInvoker;
+import openperipheral.adapter.invoke.MethodInvokerFactory;
 import openperipheral.api.*;
-
-import org.apache.logging.log4j.Level;
+import openperipheral.converter.ResultQuery;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
@@ -24,17 +24,26 @@ public class MethodDeclaration implements IDescriptable {
 
 	private final List<String> names;
 	private final Method method;
+	private final IMethodInvoker invoker;
 	private final String description;
 	private final LuaType[] returnTypes;
 
 	private final boolean validateReturn;
 
+	private final boolean returnsCursor;
+	private final boolean returnsConverted;
+
 	private final Map<String, Integer> namedArgs = Maps.newHashMap();
 	private final Set<String> allowedNames = Sets.newHashSet();
 
 	private final List<Class<?>> javaArgs;
 	private final List<Argument> luaArgs;
 
+	private final Argument[] luaArgsArray;
+	private final boolean hasVarArg;
+	private final int argCount;
+	private final long allArgsMask;
+
 	private static boolean checkOptional(boolean currentState, AnnotationMap annotations) {
 		return currentState || annotations.get(Optionals.class) != null;
 	}
@@ -58,8 +67,16 @@ public class MethodDeclaration implements IDescriptable {
 		return names.build();
 	}
 
+	private static boolean isReturningCursor(Method method) {
+		final boolean returnsCursor = method.isAnnotationPresent(CursorResult.class);
+		// cached results are shared between callers, but cursors are stateful
+		Preconditions.checkArgument(!returnsCursor || !method.isAnnotationPresent(Cached.class), "Method %s can't be marked with both @Cached and @CursorResult", method);
+		return returnsCursor;
+	}
+
 	public MethodDeclaration(Method method, LuaMethod luaMethod) {
 		this.method = method;
+		this.invoker = MethodInvokerFactory.create(method);
 
 		String luaName = luaMethod.name();
 		names = getNames(method, (LuaMethod.USE_METHOD_NAME.equals(luaName))? method.getName() : luaName);
@@ -67,6 +84,8 @@ public class MethodDeclaration implements IDescriptable {
 		this.description = luaMethod.description();
 		this.returnTypes = new LuaType[] { luaMethod.returnType() };
 		this.validateReturn = false;
+		this.returnsCursor = isReturningCursor(method);
+		this.returnsConverted = method.isAnnotationPresent(ConvertedResult.class);
 
 		final Class<?> methodArgs[] = method.getParameterTypes();
 		final Arg declaredLuaArgs[] = luaMethod.args();
@@ -106,10 +125,16 @@ public class MethodDeclaration implements IDescriptable {
 			if (named != null) namedArgs.put(named.value(), arg);
 			Preconditions.checkState(annotations.get(Optionals.class) == null, "@Optionals does not work for java arguments (method %s)", method);
 		}
+
+		this.luaArgsArray = this.luaArgs.toArray(new Argument[this.luaArgs.size()]);
+		this.hasVarArg = isVarArg && luaArgsArray.length > 0;
+		this.argCount = methodArgs.length;
+		this.allArgsMask = createArgsMask(argCount);
 	}
 
 	public MethodDeclaration(Method method, LuaCallable meta) {
 		this.method = method;
+		this.invoker = MethodInvokerFactory.create(method);
 
 		String luaName = meta.name();
 		this.names = getNames(method, (LuaCallable.USE_METHOD_NAME.equals(luaName))? method.getName() : luaName);
@@ -117,6 +142,8 @@ public class MethodDeclaration implements IDescriptable {
 		this.description = meta.description();
 		this.returnTypes = meta.returnTypes();
 		this.validateReturn = meta.validateReturn();
+		this.returnsCursor = isReturningCursor(method);
+		this.returnsConverted = method.isAnnotationPresent(ConvertedResult.class);
 
 		if (validateReturn) validateResultCount();
 
@@ -167,6 +194,16 @@ public class MethodDeclaration implements IDescriptable {
 
 		this.luaArgs = luaArgs.build();
 		this.javaArgs = javaArgs.build();
+
+		this.luaArgsArray = this.luaArgs.toArray(new Argument[this.luaArgs.size()]);
+		this.hasVarArg = isVarArg && isInLuaArgs;
+		this.argCount = methodArgs.length;
+		this.allArgsMask = createArgsMask(argCount);
+	}
+
+	private long createArgsMask(int count) {
+		Preconditions.checkArgument(count <= Long.SIZE, "Method %s has too many arguments", method);
+		return count == Long.SIZE? -1L : (1L << count) - 1;
 	}
 
 	private void validateResultCount() {
@@ -190,20 +227,30 @@ public class MethodDeclaration implements IDescriptable {
 		}
 	}
 
-	private Object[] validateResult(Object... result) {
-		for (int i = 0; i < result.length; i++)
-			result[i] = TypeConversionRegistry.INSTANCE.toLua(result[i]);
+	private Object[] validateResult(ResultQuery query, Object... result) {
+		if (query != null) {
+			// query applies to first (usually only) result
+			for (int i = 0; i < result.length; i++)
+				result[i] = (i == 0)? TypeConversionRegistry.INSTANCE.toLua(result[i], query) : TypeConversionRegistry.INSTANCE.toLua(result[i]);
+		} else if (returnsCursor) {
+			for (int i = 0; i < result.length; i++)
+				result[i] = ResultCursor.wrap(result[i]);
+		} else if (!returnsConverted) {
+			for (int i = 0; i < result.length; i++)
+				result[i] = TypeConversionRegistry.INSTANCE.toLua(result[i]);
+		}
 
+		// explicit checks instead of Preconditions, since varargs would allocate on every call
 		if (validateReturn) {
 			if (returnTypes.length == 0) {
 				Preconditions.checkArgument(result.length == 1 && result[0] == null, "Returning value from null method");
 			} else {
-				Preconditions.checkArgument(result.length == returnTypes.length, "Returning invalid number of values from method %s, expected %s, got %s", method, returnTypes.length, result.length);
+				if (result.length != returnTypes.length) throw new IllegalArgumentException(String.format("Returning invalid number of values from method %s, expected %s, got %s", method, returnTypes.length, result.length));
 				for (int i = 0; i < result.length; i++) {
 					final LuaType expected = returnTypes[i];
 					final Class<?> expectedType = expected.getJavaType();
 					final Object got = result[i];
-					Preconditions.checkArgument(got == null || expectedType.isInstance(got) || ReflectionHelper.compareTypes(expectedType, got.getClass()), "Invalid type of return value %s: expected %s, got %s", i, expected, got);
+					if (!(got == null || expectedType.isInstance(got) || ReflectionHelper.compareTypes(expectedType, got.getClass()))) throw new IllegalArgumentException(String.format("Invalid type of return value %s: expected %s, got %s", i, expected, got));
 				}
 			}
 		}
@@ -211,18 +258,22 @@ public class MethodDeclaration implements IDescriptable {
 		return result;
 	}
 
+	private static final Object[] NO_ARGS = new Object[0];
+
 	public class CallWrap implements Callable<Object[]> {
-		private final Object[] args = new Object[javaArgs.size() + luaArgs.size()];
-		private final Set<Integer> isSet = Sets.newHashSet();
+		private Object[] args = (argCount == 0)? NO_ARGS : new Object[argCount];
+		private long isSet;
 		private final Object target;
+		private ResultQuery query;
 
 		public CallWrap(Object target) {
 			this.target = target;
 		}
 
 		private CallWrap setArg(int position, Object value) {
-			boolean newlyAdded = isSet.add(position);
-			Preconditions.checkState(newlyAdded, "Trying to set already defined argument %s in method %s", position, method);
+			final long bit = 1L << position;
+			if ((isSet & bit) != 0) throw new IllegalStateException(String.format("Trying to set already defined argument %s in method %s", position, method));
+			isSet |= bit;
 			args[position] = value;
 			return this;
 		}
@@ -233,38 +284,57 @@ public class MethodDeclaration implements IDescriptable {
 			return this;
 		}
 
-		public CallWrap setLuaArgs(Object[] luaValues) {
-			Iterator<Object> it = Iterators.forArray(luaValues);
-			try {
-				for (Argument arg : luaArgs) {
-					Object value = arg.convert(it);
-					setArg(arg.javaArgIndex, value);
-				}
+		/**
+		 * @param slot
+		 *            index returned by {@link MethodDeclaration#getJavaArgSlot(String)}, negative values are ignored
+		 */
+		public CallWrap setJavaArg(int slot, Object value) {
+			if (slot >= 0) setArg(slot, value);
+			return this;
+		}
 
-				Preconditions.checkState(!it.hasNext(), "Too many arguments!");
-			} catch (ArrayIndexOutOfBoundsException e) {
-				Log.log(Level.TRACE, e, "Trying to access arg index, args = %s", Arrays.toString(luaValues));
-				throw new IllegalArgumentException(String.format("Invalid Lua parameter count, needs %s, got %s", luaArgs.size(), luaValues.length));
+		/**
+		 * Filter and project collection result during conversion, instead of converting it whole
+		 */
+		public CallWrap setResultQuery(ResultQuery query) {
+			this.query = query;
+			return this;
+		}
+
+		public CallWrap setLuaArgs(Object[] luaValues) {
+			final Argument[] luaArgs = luaArgsArray;
+			for (int i = 0; i < luaArgs.length; i++) {
+				final Argument arg = luaArgs[i];
+				Object value = arg.convert(luaValues, i);
+				setArg(arg.javaArgIndex, value);
 			}
 
+			if (!hasVarArg && luaValues.length > luaArgs.length) throw new IllegalStateException("Too many arguments!");
+
 			return this;
 		}
 
 		@Override
 		public Object[] call() throws Exception {
-			for (int i = 0; i < args.length; i++)
-				Preconditions.checkState(isSet.contains(i), "Parameter %s value not set", i);
+			final Object[] args = this.args;
+			Preconditions.checkState(args != null, "Method already called");
+			this.args = null;
+
+			if (isSet != allArgsMask) {
+				final long missing = ~isSet & allArgsMask;
+				throw new IllegalStateException(String.format("Parameter %s value not set", Long.numberOfTrailingZeros(missing)));
+			}
 
 			Object result;
 			try {
-				result = method.invoke(target, args);
-			} catch (InvocationTargetException e) {
-				Throwable wrapper = e.getCause();
-				throw Throwables.propagate(wrapper != null? wrapper : e);
+				result = invoker.invoke(target, args);
+			} catch (Exception e) {
+				// generated invokers pass checked exceptions unwrapped, keep behaviour consistent with reflection
+				throw Throwables.propagate(e);
 			}
 
-			if (result instanceof IMultiReturn) return validateResult(((IMultiReturn)result).getObjects());
-			else return validateResult(result);
+			if (result instanceof IMultiReturn) return validateResult(query, ((IMultiReturn)result).getObjects());
+			else return validateResult(query, result);
 		}
 	}
 
@@ -272,6 +342,16 @@ public class MethodDeclaration implements IDescriptable {
 		return new CallWrap(target);
 	}
 
+	/**
+	 * Get position of named Java argument, to be used with {@link CallWrap#setJavaArg(int, Object)}. Must be called after all names are assigned
+	 * 
+	 * @return argument index or -1, if name is not used by this method
+	 */
+	public int getJavaArgSlot(String name) {
+		Integer position = namedArgs.get(name);
+		return position != null? position : -1;
+	}
+
 	public void nameJavaArg(int index, String name) {
 		Preconditions.checkArgument(index < javaArgs.size(),
 				"Can't assign name '%s' to argument %s in method '%s'. Possible missing argument or @Freeform?",
@@ -336,6 +416,10 @@ public class MethodDeclaration implements IDescriptable {
 		return names;
 	}
 
+	public Method getMethod() {
+		return method;
+	}
+
 	public Class<?>[] getLuaArgTypes() {
 		Class<?>[] result = new Class<?>[luaArgs.size()];
 
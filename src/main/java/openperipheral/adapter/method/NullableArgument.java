@@ -1,6 +1,5 @@
 package openperipheral.adapter.method;
 
-import java.util.Iterator;
 import java.util.Map;
 
 import openperipheral.api.LuaType;
@@ -20,10 +19,9 @@ public class NullableArgument extends Argument {
 	}
 
 	@Override
-	public Object convert(Iterator<Object> args) {
-		Preconditions.checkState(args.hasNext(), "Not enough arguments, first missing: %s", name);
-		Object arg = args.next();
-		return convertSingleArg(arg);
+	public Object convert(Object[] args, int index) {
+		checkArgCount(args, index);
+		return convertSingleArg(args[index]);
 	}
 
 	@Override
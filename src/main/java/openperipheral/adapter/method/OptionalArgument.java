@@ -1,6 +1,5 @@
 package openperipheral.adapter.method;
 
-import java.util.Iterator;
 import java.util.Map;
 
 import openperipheral.api.LuaType;
@@ -20,11 +19,9 @@ public class OptionalArgument extends Argument {
 	}
 
 	@Override
-	public Object convert(Iterator<Object> args) {
-		if (!args.hasNext()) return null;
-
-		Object arg = args.next();
-		return convertSingleArg(arg);
+	public Object convert(Object[] args, int index) {
+		if (index >= args.length) return null;
+		return convertSingleArg(args[index]);
 	}
 
 	@Override
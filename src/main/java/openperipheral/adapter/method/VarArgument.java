@@ -1,14 +1,10 @@
 package openperipheral.adapter.method;
 
-import java.lang.reflect.Array;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 
 import openperipheral.api.LuaType;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Lists;
 
 public class VarArgument extends Argument {
 
@@ -24,20 +20,18 @@ public class VarArgument extends Argument {
 	}
 
 	protected void checkArgument(Object value) {
-		Preconditions.checkNotNull(value, "Vararg parameter '%s' has null value, but is not marked as nullable", name);
+		if (value == null) throw new NullPointerException(String.format("Vararg parameter '%s' has null value, but is not marked as nullable", name));
 	}
 
 	@Override
-	public Object convert(Iterator<Object> args) {
-		List<Object> allArgs = Lists.newArrayList(args);
+	public Object convert(Object[] args, int index) {
+		final int count = Math.max(args.length - index, 0);
+		Object vararg = converter.createArray(count);
 
-		Object vararg = Array.newInstance(javaType, allArgs.size());
-
-		for (int i = 0; i < allArgs.size(); i++) {
-			Object value = allArgs.get(i);
+		for (int i = 0; i < count; i++) {
+			Object value = args[index + i];
 			checkArgument(value);
-			Object converted = convertSingleArg(value);
-			Array.set(vararg, i, converted);
+			if (value != null && !converter.convertInto(vararg, i, value)) throw conversionFailed(value);
 		}
 
 		return vararg;
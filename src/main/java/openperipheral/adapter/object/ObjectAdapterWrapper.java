@@ -2,7 +2,6 @@ package openperipheral.adapter.object;
 
 import java.lang.reflect.Method;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.Callable;
 
 import openperipheral.adapter.*;
@@ -22,33 +21,58 @@ public abstract class ObjectAdapterWrapper extends AdapterWrapper<IObjectMethodE
 	private static final String ARG_TARGET = "target";
 	private static final String ARG_CONTEXT = "context";
 
+	protected class ObjectMethodExecutor implements IObjectMethodExecutor {
+		public final MethodDeclaration decl;
+		public final ProxyArgsBinder proxyArgs;
+		public final ResultCache cache;
+
+		protected final int targetSlot;
+		protected final int contextSlot;
+
+		public ObjectMethodExecutor(MethodDeclaration decl, ProxyArgsBinder proxyArgs) {
+			this.decl = decl;
+			this.proxyArgs = proxyArgs;
+			this.cache = ResultCache.create(decl.getMethod());
+
+			this.targetSlot = decl.getJavaArgSlot(ARG_TARGET);
+			this.contextSlot = decl.getJavaArgSlot(ARG_CONTEXT);
+		}
+
+		@Override
+		public IDescriptable getWrappedMethod() {
+			return decl;
+		}
+
+		@Override
+		public Object[] execute(ILuaContext context, Object target, Object[] args) throws Exception {
+			if (cache != null) {
+				Object[] cached = cache.get(target, null, args);
+				if (cached != null) return cached;
+			}
+
+			Object[] result = createWrapper(this, context, target, args).call();
+
+			if (cache != null) cache.put(target, null, args, result);
+			return result;
+		}
+
+		@Override
+		public boolean isSynthetic() {
+			return false;
+		}
+	}
+
 	@Override
 	protected List<IObjectMethodExecutor> buildMethodList() {
 		return buildMethodList(true, new MethodExecutorFactory<IObjectMethodExecutor>() {
 			@Override
-			public IObjectMethodExecutor createExecutor(Method method, final MethodDeclaration decl, final Map<String, Method> proxyArgs) {
-				return new IObjectMethodExecutor() {
-
-					@Override
-					public IDescriptable getWrappedMethod() {
-						return decl;
-					}
-
-					@Override
-					public Object[] execute(ILuaContext context, Object target, Object[] args) throws Exception {
-						return createWrapper(decl, context, target, args, proxyArgs).call();
-					}
-
-					@Override
-					public boolean isSynthetic() {
-						return false;
-					}
-				};
+			public IObjectMethodExecutor createExecutor(Method method, MethodDeclaration decl, ProxyArgsBinder proxyArgs) {
+				return new ObjectMethodExecutor(decl, proxyArgs);
 			}
 		});
 	}
 
-	protected abstract Callable<Object[]> createWrapper(MethodDeclaration decl, ILuaContext context, Object target, Object[] args, Map<String, Method> proxyArgs);
+	protected abstract Callable<Object[]> createWrapper(ObjectMethodExecutor executor, ILuaContext context, Object target, Object[] args);
 
 	private static class ObjectPropertyExecutor extends PropertyExecutor implements IObjectMethodExecutor {
 
@@ -85,10 +109,10 @@ public abstract class ObjectAdapterWrapper extends AdapterWrapper<IObjectMethodE
 		}
 
 		@Override
-		protected Callable<Object[]> createWrapper(MethodDeclaration decl, ILuaContext context, Object target, Object[] args, Map<String, Method> proxyArgs) {
-			return nameAdapterMethods(target, proxyArgs, decl.createWrapper(adapter)
-					.setJavaArg(ARG_TARGET, target)
-					.setJavaArg(ARG_CONTEXT, context)
+		protected Callable<Object[]> createWrapper(ObjectMethodExecutor executor, ILuaContext context, Object target, Object[] args) {
+			return executor.proxyArgs.bind(target, executor.decl.createWrapper(adapter)
+					.setJavaArg(executor.targetSlot, target)
+					.setJavaArg(executor.contextSlot, context)
 					.setLuaArgs(args));
 		}
 	}
@@ -110,9 +134,9 @@ public abstract class ObjectAdapterWrapper extends AdapterWrapper<IObjectMethodE
 		}
 
 		@Override
-		protected Callable<Object[]> createWrapper(MethodDeclaration decl, ILuaContext context, Object target, Object[] args, Map<String, Method> proxyArgs) {
-			return decl.createWrapper(target)
-					.setJavaArg(ARG_CONTEXT, context)
+		protected Callable<Object[]> createWrapper(ObjectMethodExecutor executor, ILuaContext context, Object target, Object[] args) {
+			return executor.decl.createWrapper(target)
+					.setJavaArg(executor.contextSlot, context)
 					.setLuaArgs(args);
 		}
 
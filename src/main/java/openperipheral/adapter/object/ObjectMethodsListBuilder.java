@@ -14,6 +14,7 @@ public class ObjectMethodsListBuilder extends ClassMethodsListBuilder<IObjectMet
 
 	@Override
 	public IObjectMethodExecutor createDummyWrapper(final Object lister, final MethodDeclaration method) {
+		final int targetSlot = method.getJavaArgSlot(ARG_TARGET);
 		return new IObjectMethodExecutor() {
 			@Override
 			public IDescriptable getWrappedMethod() {
@@ -22,7 +23,7 @@ public class ObjectMethodsListBuilder extends ClassMethodsListBuilder<IObjectMet
 
 			@Override
 			public Object[] execute(ILuaContext context, Object target, Object[] args) throws Exception {
-				return method.createWrapper(lister).setJavaArg(ARG_TARGET, target).setLuaArgs(args).call();
+				return method.createWrapper(lister).setJavaArg(targetSlot, target).setLuaArgs(args).call();
 			}
 
 			@Override
@@ -0,0 +1,160 @@
+package openperipheral.adapter.peripheral;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import openperipheral.adapter.AdapterLogicException;
+import openperipheral.adapter.method.ConvertedResult;
+import openperipheral.api.Arg;
+import openperipheral.api.LuaCallable;
+import openperipheral.api.LuaType;
+import openperipheral.api.Named;
+import openperipheral.converter.LuaArrayTable;
+
+import com.google.common.collect.Lists;
+
+import dan200.computercraft.api.lua.ILuaContext;
+import dan200.computercraft.api.peripheral.IComputerAccess;
+
+public class BatchCallHelper {
+
+	public static final String METHOD_NAME = "callBatch";
+
+	private final Map<String, IPeripheralMethodExecutor> methods;
+
+	public BatchCallHelper(Map<String, IPeripheralMethodExecutor> methods) {
+		this.methods = methods;
+	}
+
+	private static class SyncEntry {
+		private final int index;
+		private final PeripheralAdapterWrapper.PeripheralMethodExecutor executor;
+		private final Object[] args;
+		private final Callable<Object[]> callable;
+
+		private SyncEntry(int index, PeripheralAdapterWrapper.PeripheralMethodExecutor executor, Object[] args, Callable<Object[]> callable) {
+			this.index = index;
+			this.executor = executor;
+			this.args = args;
+			this.callable = callable;
+		}
+	}
+
+	private static int getLength(Map<?, ?> table) {
+		int length = 0;
+		for (Object key : table.keySet()) {
+			if (key instanceof Number) {
+				final double value = ((Number)key).doubleValue();
+				final int index = (int)value;
+				if (index == value && index > length) length = index;
+			}
+		}
+		return length;
+	}
+
+	// results of calls are already converted, so whole batch result is built from Lua values
+	private static Map<Object, Object> success(Object[] results) {
+		Object[] entry = new Object[results.length + 1];
+		entry[0] = Boolean.TRUE;
+		System.arraycopy(results, 0, entry, 1, results.length);
+		return new LuaArrayTable(entry);
+	}
+
+	private static Map<Object, Object> failure(String message) {
+		return new LuaArrayTable(new Object[] { Boolean.FALSE, message });
+	}
+
+	private static Map<Object, Object> failure(Throwable t) {
+		return failure(t instanceof AdapterLogicException? t.getMessage() : AdapterLogicException.getMessageForThrowable(t));
+	}
+
+	@LuaCallable(returnTypes = LuaType.TABLE, description = "Call multiple methods at once. Every entry is table with method name followed by arguments. "
+			+ "Synchronous methods are executed together in single tick, after asynchronous ones. Every result is table in pcall format: {true, results...} or {false, error}")
+	@ConvertedResult
+	public Map<Object, Object> callBatch(@Named("computer") IComputerAccess computer, @Named("context") ILuaContext context, @Named("target") Object target,
+			@Arg(name = "calls", type = LuaType.TABLE, description = "List of calls, i.e. {{'method1', arg1, arg2}, {'method2'}}") Map<?, ?> calls) throws Exception {
+		final int count = getLength(calls);
+		final Object[] results = new Object[count];
+
+		List<SyncEntry> syncCalls = Lists.newArrayList();
+		ExecutionStrategy syncStrategy = null;
+
+		for (int i = 0; i < count; i++) {
+			Object call = calls.get((double)(i + 1));
+			if (!(call instanceof Map)) {
+				results[i] = failure("Entry must be table");
+				continue;
+			}
+
+			Map<?, ?> callTable = (Map<?, ?>)call;
+			Object name = callTable.get(1.0);
+			IPeripheralMethodExecutor executor = methods.get(name);
+			if (executor == null || METHOD_NAME.equals(name)) {
+				results[i] = failure("Invalid method: " + name);
+				continue;
+			}
+
+			final int argCount = Math.max(getLength(callTable) - 1, 0);
+			Object[] args = new Object[argCount];
+			for (int arg = 0; arg < argCount; arg++)
+				args[arg] = callTable.get((double)(arg + 2));
+
+			try {
+				if (executor instanceof PeripheralAdapterWrapper.PeripheralMethodExecutor) {
+					PeripheralAdapterWrapper.PeripheralMethodExecutor methodExecutor = (PeripheralAdapterWrapper.PeripheralMethodExecutor)executor;
+					if (methodExecutor.isSynchronous()) {
+						// same cache rules as in PeripheralMethodExecutor.execute
+						final Object[] cached = methodExecutor.getCached(computer, target, args);
+						if (cached != null) {
+							results[i] = success(cached);
+							continue;
+						}
+
+						// all synchronous calls are executed together, so they use highest priority of them (lowest ordinal)
+						if (syncStrategy == null || methodExecutor.strategy.getPriority().ordinal() < syncStrategy.getPriority().ordinal()) syncStrategy = methodExecutor.strategy;
+						syncCalls.add(new SyncEntry(i, methodExecutor, args, methodExecutor.prepare(computer, context, target, args)));
+						results[i] = failure("Target unloaded");
+						continue;
+					}
+				}
+
+				results[i] = success(executor.execute(computer, context, target, args));
+			} catch (InterruptedException e) {
+				throw e;
+			} catch (Throwable t) {
+				results[i] = failure(t);
+			}
+		}
+
+		if (syncStrategy != null) {
+			final List<SyncEntry> entries = syncCalls;
+			final Object[][] syncResults = new Object[entries.size()][];
+			syncStrategy.execute(target, computer, context, new Callable<Object[]>() {
+				@Override
+				public Object[] call() {
+					for (int i = 0; i < syncResults.length; i++) {
+						final SyncEntry entry = entries.get(i);
+						try {
+							syncResults[i] = entry.callable.call();
+							results[entry.index] = success(syncResults[i]);
+						} catch (Throwable t) {
+							results[entry.index] = failure(t);
+						}
+					}
+					return ExecutionStrategy.DUMMY;
+				}
+			});
+
+			// stored after tick, like in direct call
+			for (int i = 0; i < syncResults.length; i++) {
+				if (syncResults[i] != null) {
+					final SyncEntry entry = entries.get(i);
+					entry.executor.storeCached(computer, target, entry.args, syncResults[i]);
+				}
+			}
+		}
+
+		return new LuaArrayTable(results);
+	}
+}
@@ -0,0 +1,50 @@
+package openperipheral.adapter.peripheral;
+
+import java.util.Map;
+
+import openperipheral.adapter.method.ConvertedResult;
+import openperipheral.api.*;
+import openperipheral.converter.LuaValueHasher;
+
+import com.google.common.base.Preconditions;
+
+import dan200.computercraft.api.lua.ILuaContext;
+import dan200.computercraft.api.peripheral.IComputerAccess;
+
+public class ConditionalCallHelper {
+
+	public static final String METHOD_NAME = "callConditional";
+
+	private final Map<String, IPeripheralMethodExecutor> methods;
+
+	public ConditionalCallHelper(Map<String, IPeripheralMethodExecutor> methods) {
+		this.methods = methods;
+	}
+
+	@ConvertedResult
+	@LuaCallable(returnTypes = { LuaType.BOOLEAN, LuaType.STRING }, validateReturn = false, description = "Call method, but return its results only if they changed since call that returned given token. "
+			+ "Returns false and same token when results are unchanged, otherwise true, new token and method results. Methods returning objects (like cursors) can't be called conditionally")
+	public IMultiReturn callConditional(@Named("computer") IComputerAccess computer, @Named("context") ILuaContext context, @Named("target") Object target,
+			@Arg(name = "method", type = LuaType.STRING, description = "Name of called method") String method,
+			@Arg(name = "token", type = LuaType.STRING, description = "Token returned by previous call, or nil", isNullable = true) String token,
+			@Arg(name = "args", type = LuaType.OBJECT, description = "Method arguments", isNullable = true) Object... args) throws Exception {
+		IPeripheralMethodExecutor executor = methods.get(method);
+		Preconditions.checkArgument(executor instanceof PeripheralAdapterWrapper.PeripheralMethodExecutor, "Method '%s' can't be called conditionally", method);
+
+		final Object[] results = executor.execute(computer, context, target, args);
+		final String newToken;
+		try {
+			newToken = Long.toHexString(LuaValueHasher.hash(method.hashCode(), results));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(String.format("Method '%s' can't be called conditionally: %s", method, e.getMessage()));
+		}
+
+		if (newToken.equals(token)) return MultiReturn.wrap(Boolean.FALSE, token);
+
+		Object[] wrapped = new Object[results.length + 2];
+		wrapped[0] = Boolean.TRUE;
+		wrapped[1] = newToken;
+		System.arraycopy(results, 0, wrapped, 2, results.length);
+		return MultiReturn.wrap(wrapped);
+	}
+}
@@ -1,14 +1,15 @@
 package openperipheral.adapter.peripheral;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.world.World;
 import openmods.Log;
 import openmods.utils.WorldUtils;
-import openmods.world.DelayedActionTickHandler;
 import openperipheral.adapter.AdapterLogicException;
 import openperipheral.api.IWorldProvider;
+import openperipheral.api.TickPriority;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
@@ -20,44 +21,52 @@ import dan200.computercraft.api.peripheral.IComputerAccess;
 public abstract class ExecutionStrategy {
 	public abstract Object[] execute(Object target, IComputerAccess computer, ILuaContext context, Callable<Object[]> callable) throws Exception;
 
-	private static final String SYNC_EVENT = "op_tick_sync";
+	private static final String SYNC_EVENT = "op_tick_sync_";
 
-	private static int currentId;
-
-	private static synchronized int getNextId() {
-		return currentId++;
-	}
+	private static final AtomicInteger currentId = new AtomicInteger();
 
 	public boolean isAlwaysSafe() {
 		return true;
 	}
 
+	/**
+	 * @return priority of queued call or null, if strategy is not synchronous
+	 */
+	public TickPriority getPriority() {
+		return null;
+	}
+
 	public static Object[] wrap(Object... args) {
 		return args;
 	}
 
 	public static final Object[] DUMMY = new Object[0];
 
+	/**
+	 * Every transaction uses own event name, so completion wakes only coroutine that waits for it (filtered pullEvent), not every waiting coroutine on computer
+	 */
 	private static class Responder {
 		private final ILuaContext context;
 		private final IComputerAccess access;
-		private boolean nobodyLovesMe;
+		private volatile boolean nobodyLovesMe;
 		private final int transactionId;
+		private final String eventName;
 
-		public Throwable error;
-		public Object[] result;
+		public volatile Throwable error;
+		public volatile Object[] result;
 
 		private Responder(ILuaContext context, IComputerAccess access) {
 			this.context = context;
 			this.access = access;
-			transactionId = getNextId();
+			this.transactionId = currentId.getAndIncrement();
+			this.eventName = SYNC_EVENT + transactionId;
 		}
 
 		public void waitForEvent() throws Exception {
 			while (!nobodyLovesMe) {
 				Object[] result;
 				try {
-					result = context.pullEvent(SYNC_EVENT);
+					result = context.pullEvent(eventName);
 				} catch (Exception e) {
 					nobodyLovesMe = true;
 					throw e;
@@ -76,7 +85,7 @@ public abstract class ExecutionStrategy {
 				if (log) Log.warn("Ignoring signal for transaction %s. (sob)", transactionId);
 			} else {
 				try {
-					access.queueEvent(SYNC_EVENT, wrap(transactionId));
+					access.queueEvent(eventName, wrap(transactionId));
 				} catch (Exception e) {
 					// computer got invalidated, but we get here due to delayed tick
 					if (log) Log.warn(e, "Failed to signal response to transaction '%d'", transactionId);
@@ -87,6 +96,17 @@ public abstract class ExecutionStrategy {
 
 	private abstract static class OnTick<T> extends ExecutionStrategy {
 
+		private final TickPriority priority;
+
+		private OnTick(TickPriority priority) {
+			this.priority = priority;
+		}
+
+		@Override
+		public TickPriority getPriority() {
+			return priority;
+		}
+
 		public abstract boolean isLoaded(T target);
 
 		public abstract World getWorld(T target);
@@ -99,9 +119,9 @@ public abstract class ExecutionStrategy {
 
 			final Responder responder = new Responder(context, computer);
 
-			DelayedActionTickHandler.INSTANCE.addTickCallback(world, new Runnable() {
+			SyncCallScheduler.INSTANCE.schedule(world, priority, new SyncCallScheduler.ITask() {
 				@Override
-				public void run() {
+				public void execute() {
 					@SuppressWarnings("unchecked")
 					boolean isStillLoaded = isLoaded((T)target);
 					if (isStillLoaded) {
@@ -117,6 +137,12 @@ public abstract class ExecutionStrategy {
 						responder.signalEvent(false);
 					}
 				}
+
+				@Override
+				public void cancel() {
+					responder.result = DUMMY;
+					responder.signalEvent(false);
+				}
 			});
 
 			responder.waitForEvent();
@@ -142,7 +168,11 @@ public abstract class ExecutionStrategy {
 		}
 	};
 
-	private final static ExecutionStrategy ON_TICK_TILE_ENTITY = new OnTick<TileEntity>() {
+	private static class OnTickTileEntity extends OnTick<TileEntity> {
+
+		private OnTickTileEntity(TickPriority priority) {
+			super(priority);
+		}
 
 		@Override
 		public World getWorld(TileEntity target) {
@@ -154,9 +184,13 @@ public abstract class ExecutionStrategy {
 			return WorldUtils.isTileEntityValid(target);
 		}
 
-	};
+	}
+
+	private static class OnTickWorldProvider extends OnTick<IWorldProvider> {
 
-	private final static ExecutionStrategy ON_TICK_WORLD_PROVIDER = new OnTick<IWorldProvider>() {
+		private OnTickWorldProvider(TickPriority priority) {
+			super(priority);
+		}
 
 		@Override
 		public World getWorld(IWorldProvider target) {
@@ -168,9 +202,13 @@ public abstract class ExecutionStrategy {
 			return target.isValid();
 		}
 
-	};
+	}
+
+	private static class OnTickOther extends OnTick<Object> {
 
-	private final static ExecutionStrategy ON_TICK_OTHER = new OnTick<Object>() {
+		private OnTickOther(TickPriority priority) {
+			super(priority);
+		}
 
 		@Override
 		public World getWorld(Object target) {
@@ -190,11 +228,11 @@ public abstract class ExecutionStrategy {
 			if (target instanceof IWorldProvider) return ((IWorldProvider)target).isValid();
 			throw new UnsupportedOperationException(String.format("Methods of adapter for %s cannot be synchronous", target.getClass()));
 		}
-	};
+	}
 
-	public static ExecutionStrategy createOnTickStrategy(Class<?> targetClass) {
-		if (TileEntity.class.isAssignableFrom(targetClass)) return ON_TICK_TILE_ENTITY;
-		else if (IWorldProvider.class.isAssignableFrom(targetClass)) return ON_TICK_WORLD_PROVIDER;
-		else return ON_TICK_OTHER;
+	public static ExecutionStrategy createOnTickStrategy(Class<?> targetClass, TickPriority priority) {
+		if (TileEntity.class.isAssignableFrom(targetClass)) return new OnTickTileEntity(priority);
+		else if (IWorldProvider.class.isAssignableFrom(targetClass)) return new OnTickWorldProvider(priority);
+		else return new OnTickOther(priority);
 	}
 }
@@ -3,18 +3,20 @@ package openperipheral.adapter.peripheral;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.Callable;
 
 import openmods.Log;
 import openperipheral.adapter.AdapterManager;
 import openperipheral.adapter.AdapterWrapper;
 import openperipheral.adapter.IDescriptable;
+import openperipheral.adapter.ProxyArgsBinder;
+import openperipheral.adapter.ResultCache;
 import openperipheral.adapter.composed.ClassMethodsList;
 import openperipheral.adapter.method.MethodDeclaration;
 import openperipheral.adapter.method.MethodDeclaration.CallWrap;
 import openperipheral.adapter.object.IObjectMethodExecutor;
 import openperipheral.api.*;
+import openperipheral.converter.ResultQuery;
 
 import com.google.common.base.Preconditions;
 
@@ -42,17 +44,32 @@ public abstract class PeripheralAdapterWrapper extends AdapterWrapper<IPeriphera
 		return onTick != null? onTick.value() : defaultValue;
 	}
 
+	protected static TickPriority getTickPriority(AnnotatedElement element, TickPriority defaultValue) {
+		OnTick onTick = element.getAnnotation(OnTick.class);
+		return onTick != null? onTick.priority() : defaultValue;
+	}
+
 	protected static abstract class PeripheralMethodExecutor implements IPeripheralMethodExecutor {
 		public final MethodDeclaration method;
 		public final ExecutionStrategy strategy;
-		public final Map<String, Method> proxyArgs;
+		public final ProxyArgsBinder proxyArgs;
+		public final ResultCache cache;
+
+		protected final int computerSlot;
+		protected final int contextSlot;
+		protected final int targetSlot;
 
 		protected abstract CallWrap createWrapper(IComputerAccess computer, ILuaContext context, Object target, Object[] luaArgs);
 
-		public PeripheralMethodExecutor(MethodDeclaration method, ExecutionStrategy strategy, Map<String, Method> proxyArgs) {
+		public PeripheralMethodExecutor(MethodDeclaration method, ExecutionStrategy strategy, ProxyArgsBinder proxyArgs) {
 			this.method = method;
 			this.strategy = strategy;
 			this.proxyArgs = proxyArgs;
+			this.cache = ResultCache.create(method.getMethod());
+
+			this.computerSlot = method.getJavaArgSlot(ARG_COMPUTER);
+			this.contextSlot = method.getJavaArgSlot(ARG_CONTEXT);
+			this.targetSlot = method.getJavaArgSlot(ARG_TARGET);
 		}
 
 		@Override
@@ -65,27 +82,62 @@ public abstract class PeripheralAdapterWrapper extends AdapterWrapper<IPeriphera
 			return false;
 		}
 
+		public boolean isSynchronous() {
+			return strategy != ExecutionStrategy.ASYNCHRONOUS;
+		}
+
+		public Callable<Object[]> prepare(IComputerAccess computer, ILuaContext context, Object target, Object[] args) {
+			return proxyArgs.bind(target, createWrapper(computer, context, target, args));
+		}
+
+		public Callable<Object[]> prepare(IComputerAccess computer, ILuaContext context, Object target, Object[] args, ResultQuery query) {
+			return proxyArgs.bind(target, createWrapper(computer, context, target, args).setResultQuery(query));
+		}
+
+		private Object getCacheCaller(IComputerAccess computer) {
+			// context belongs to calling computer, so computer identity is enough to separate callers
+			return (computerSlot >= 0 || contextSlot >= 0)? computer : null;
+		}
+
+		/**
+		 * @return results stored by {@link Cached} method or null, if call must be executed
+		 */
+		public Object[] getCached(IComputerAccess computer, Object target, Object[] args) {
+			return cache != null? cache.get(target, getCacheCaller(computer), args) : null;
+		}
+
+		public void storeCached(IComputerAccess computer, Object target, Object[] args, Object[] result) {
+			if (cache != null) cache.put(target, getCacheCaller(computer), args, result);
+		}
+
 		@Override
 		public Object[] execute(IComputerAccess computer, ILuaContext context, Object target, Object[] args) throws Exception {
-			Callable<Object[]> callable = nameAdapterMethods(target, proxyArgs, createWrapper(computer, context, target, args));
-			return strategy.execute(target, computer, context, callable);
+			Object[] cached = getCached(computer, target, args);
+			if (cached != null) return cached;
+
+			Callable<Object[]> callable = prepare(computer, context, target, args);
+			Object[] result = strategy.execute(target, computer, context, callable);
+
+			storeCached(computer, target, args, result);
+			return result;
 		}
 	}
 
 	@Override
 	protected List<IPeripheralMethodExecutor> buildMethodList() {
 		final boolean defaultOnTick = isOnTick(adapterClass, false);
+		final TickPriority defaultPriority = getTickPriority(adapterClass, TickPriority.NORMAL);
 
 		final boolean packageIsIgnoringWarnings = isIgnoringWarnings(adapterClass.getPackage(), false);
 		final boolean classIsIgnoringWarnings = isIgnoringWarnings(adapterClass, packageIsIgnoringWarnings);
 
 		List<IPeripheralMethodExecutor> peripheralMethods = buildMethodList(false, new MethodExecutorFactory<IPeripheralMethodExecutor>() {
 			@Override
-			public IPeripheralMethodExecutor createExecutor(Method method, MethodDeclaration decl, Map<String, Method> proxyArgs) {
+			public IPeripheralMethodExecutor createExecutor(Method method, MethodDeclaration decl, ProxyArgsBinder proxyArgs) {
 				LuaMethod methodAnn = method.getAnnotation(LuaMethod.class);
 				boolean onTick = (methodAnn != null)? methodAnn.onTick() : isOnTick(method, defaultOnTick);
 
-				ExecutionStrategy strategy = onTick? ExecutionStrategy.createOnTickStrategy(targetCls) : ExecutionStrategy.ASYNCHRONOUS;
+				ExecutionStrategy strategy = onTick? ExecutionStrategy.createOnTickStrategy(targetCls, getTickPriority(method, defaultPriority)) : ExecutionStrategy.ASYNCHRONOUS;
 
 				if (!strategy.isAlwaysSafe() && !isIgnoringWarnings(method, classIsIgnoringWarnings)) {
 					Log.warn("Method '%s' is synchronous, but type %s does not provide world instance. Possible runtime crash!", method, targetCls);
@@ -112,7 +164,7 @@ public abstract class PeripheralAdapterWrapper extends AdapterWrapper<IPeriphera
 		}
 	}
 
-	protected abstract IPeripheralMethodExecutor createDirectExecutor(MethodDeclaration method, ExecutionStrategy strategy, Map<String, Method> proxyArgs);
+	protected abstract IPeripheralMethodExecutor createDirectExecutor(MethodDeclaration method, ExecutionStrategy strategy, ProxyArgsBinder proxyArgs);
 
 	protected abstract IPeripheralMethodExecutor adaptObjectExecutor(Method targetProvider, IObjectMethodExecutor executor);
 }
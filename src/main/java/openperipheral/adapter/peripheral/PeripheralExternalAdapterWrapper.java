@@ -2,9 +2,9 @@ package openperipheral.adapter.peripheral;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
-import java.util.Map;
 
 import openperipheral.adapter.IDescriptable;
+import openperipheral.adapter.ProxyArgsBinder;
 import openperipheral.adapter.method.MethodDeclaration;
 import openperipheral.adapter.method.MethodDeclaration.CallWrap;
 import openperipheral.adapter.object.IObjectMethodExecutor;
@@ -19,16 +19,16 @@ public class PeripheralExternalAdapterWrapper extends PeripheralAdapterWrapper {
 
 	private class NormalMethodExecutor extends PeripheralMethodExecutor {
 
-		public NormalMethodExecutor(MethodDeclaration method, ExecutionStrategy strategy, Map<String, Method> proxyArgs) {
+		public NormalMethodExecutor(MethodDeclaration method, ExecutionStrategy strategy, ProxyArgsBinder proxyArgs) {
 			super(method, strategy, proxyArgs);
 		}
 
 		@Override
 		protected CallWrap createWrapper(IComputerAccess computer, ILuaContext context, Object target, Object[] luaArgs) {
 			return method.createWrapper(adapter)
-					.setJavaArg(ARG_COMPUTER, computer)
-					.setJavaArg(ARG_TARGET, target)
-					.setJavaArg(ARG_CONTEXT, context)
+					.setJavaArg(computerSlot, computer)
+					.setJavaArg(targetSlot, target)
+					.setJavaArg(contextSlot, context)
 					.setLuaArgs(luaArgs);
 		}
 	}
@@ -41,7 +41,7 @@ public class PeripheralExternalAdapterWrapper extends PeripheralAdapterWrapper {
 	}
 
 	@Override
-	protected IPeripheralMethodExecutor createDirectExecutor(MethodDeclaration method, ExecutionStrategy strategy, Map<String, Method> proxyArgs) {
+	protected IPeripheralMethodExecutor createDirectExecutor(MethodDeclaration method, ExecutionStrategy strategy, ProxyArgsBinder proxyArgs) {
 		return new NormalMethodExecutor(method, strategy, proxyArgs);
 	}
 
@@ -3,7 +3,6 @@ package openperipheral.adapter.peripheral;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import openperipheral.adapter.*;
 import openperipheral.adapter.PropertyListBuilder.FieldContext;
@@ -22,15 +21,15 @@ public class PeripheralInlineAdapterWrapper extends PeripheralAdapterWrapper imp
 
 	private static class InlineMethodExecutor extends PeripheralMethodExecutor {
 
-		public InlineMethodExecutor(MethodDeclaration method, ExecutionStrategy strategy, Map<String, Method> proxyArgs) {
+		public InlineMethodExecutor(MethodDeclaration method, ExecutionStrategy strategy, ProxyArgsBinder proxyArgs) {
 			super(method, strategy, proxyArgs);
 		}
 
 		@Override
 		protected CallWrap createWrapper(IComputerAccess computer, ILuaContext context, Object target, Object[] luaArgs) {
 			return method.createWrapper(target)
-					.setJavaArg(ARG_COMPUTER, computer)
-					.setJavaArg(ARG_CONTEXT, context)
+					.setJavaArg(computerSlot, computer)
+					.setJavaArg(contextSlot, context)
 					.setLuaArgs(luaArgs);
 		}
 	}
@@ -40,7 +39,7 @@ public class PeripheralInlineAdapterWrapper extends PeripheralAdapterWrapper imp
 	}
 
 	@Override
-	protected IPeripheralMethodExecutor createDirectExecutor(MethodDeclaration method, ExecutionStrategy strategy, Map<String, Method> proxyArgs) {
+	protected IPeripheralMethodExecutor createDirectExecutor(MethodDeclaration method, ExecutionStrategy strategy, ProxyArgsBinder proxyArgs) {
 		return new InlineMethodExecutor(method, strategy, proxyArgs);
 	}
 
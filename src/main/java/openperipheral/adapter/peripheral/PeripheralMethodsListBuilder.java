@@ -17,6 +17,9 @@ public class PeripheralMethodsListBuilder extends ClassMethodsListBuilder<IPerip
 
 	@Override
 	public IPeripheralMethodExecutor createDummyWrapper(final Object lister, final MethodDeclaration method) {
+		final int targetSlot = method.getJavaArgSlot(ARG_TARGET);
+		final int computerSlot = method.getJavaArgSlot(PeripheralAdapterWrapper.ARG_COMPUTER);
+		final int contextSlot = method.getJavaArgSlot(PeripheralAdapterWrapper.ARG_CONTEXT);
 		return new IPeripheralMethodExecutor() {
 			@Override
 			public IDescriptable getWrappedMethod() {
@@ -25,7 +28,12 @@ public class PeripheralMethodsListBuilder extends ClassMethodsListBuilder<IPerip
 
 			@Override
 			public Object[] execute(IComputerAccess computer, ILuaContext context, Object target, Object[] args) throws Exception {
-				return method.createWrapper(lister).setJavaArg(ARG_TARGET, target).setLuaArgs(args).call();
+				return method.createWrapper(lister)
+						.setJavaArg(targetSlot, target)
+						.setJavaArg(computerSlot, computer)
+						.setJavaArg(contextSlot, context)
+						.setLuaArgs(args)
+						.call();
 			}
 
 			@Override
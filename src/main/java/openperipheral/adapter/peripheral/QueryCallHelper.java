@@ -0,0 +1,46 @@
+package openperipheral.adapter.peripheral;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import openperipheral.adapter.method.ConvertedResult;
+import openperipheral.api.Arg;
+import openperipheral.api.LuaCallable;
+import openperipheral.api.LuaType;
+import openperipheral.api.Named;
+import openperipheral.converter.ResultQuery;
+
+import com.google.common.base.Preconditions;
+
+import dan200.computercraft.api.lua.ILuaContext;
+import dan200.computercraft.api.peripheral.IComputerAccess;
+
+public class QueryCallHelper {
+
+	public static final String METHOD_NAME = "callQuery";
+
+	private final Map<String, IPeripheralMethodExecutor> methods;
+
+	public QueryCallHelper(Map<String, IPeripheralMethodExecutor> methods) {
+		this.methods = methods;
+	}
+
+	@ConvertedResult
+	@LuaCallable(returnTypes = LuaType.TABLE, description = "Call method returning list or map and return only selected entries and fields (or nil, if method returned nil). "
+			+ "Query format: {fields = {names...}, where = {field = value or {equals = value, min = number, max = number, prefix = string}}, sortBy = field, descending = bool, limit = number}")
+	public Object callQuery(@Named("computer") IComputerAccess computer, @Named("context") ILuaContext context, @Named("target") Object target,
+			@Arg(name = "method", type = LuaType.STRING, description = "Name of called method") String method,
+			@Arg(name = "query", type = LuaType.TABLE, description = "Query applied to result") Map<?, ?> query,
+			@Arg(name = "args", type = LuaType.OBJECT, description = "Method arguments", isNullable = true) Object... args) throws Exception {
+		IPeripheralMethodExecutor executor = methods.get(method);
+		Preconditions.checkArgument(executor instanceof PeripheralAdapterWrapper.PeripheralMethodExecutor, "Method '%s' can't be queried", method);
+
+		final ResultQuery parsedQuery = ResultQuery.parse(query);
+
+		// cache is skipped, since cached results are already converted
+		PeripheralAdapterWrapper.PeripheralMethodExecutor methodExecutor = (PeripheralAdapterWrapper.PeripheralMethodExecutor)executor;
+		Callable<Object[]> callable = methodExecutor.prepare(computer, context, target, args, parsedQuery);
+		Object[] result = methodExecutor.strategy.execute(target, computer, context, callable);
+		return result.length > 0? result[0] : null;
+	}
+}
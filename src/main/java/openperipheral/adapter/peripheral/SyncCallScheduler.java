@@ -0,0 +1,180 @@
+package openperipheral.adapter.peripheral;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
+import openmods.Log;
+import openperipheral.Config;
+import openperipheral.api.TickPriority;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.common.gameevent.TickEvent;
+import cpw.mods.fml.common.gameevent.TickEvent.Phase;
+
+/**
+ * Executes synchronous calls during world tick. Calls are queued from computer threads without locking and executed until time budget for tick is used, rest is carried over to next tick.
+ */
+public class SyncCallScheduler {
+
+	public interface ITask {
+		public void execute();
+
+		/**
+		 * Called instead of {@link #execute()} when task can no longer be executed (i.e. world was unloaded)
+		 */
+		public void cancel();
+	}
+
+	public static class WorldStats {
+		public int queued;
+		public int lastDrained;
+		public int lastCarriedOver;
+		public long lastTimeNanos;
+
+		public long totalDrained;
+		public long ticksWithCarryOver;
+	}
+
+	private static final TickPriority[] PRIORITIES = TickPriority.values();
+
+	private static class WorldQueue {
+		private final Queue<ITask>[] queues;
+		private final AtomicInteger pending = new AtomicInteger();
+		private final WorldStats stats = new WorldStats();
+		private volatile boolean closed;
+
+		@SuppressWarnings("unchecked")
+		private WorldQueue() {
+			queues = new Queue[PRIORITIES.length];
+			for (int i = 0; i < queues.length; i++)
+				queues[i] = new ConcurrentLinkedQueue<ITask>();
+		}
+
+		public void add(TickPriority priority, ITask task) {
+			queues[priority.ordinal()].add(task);
+			pending.incrementAndGet();
+			// queue may have been closed before task was added, so nobody else will drain it
+			if (closed) cancel();
+		}
+
+		private ITask poll() {
+			for (Queue<ITask> queue : queues) {
+				ITask task = queue.poll();
+				if (task != null) {
+					pending.decrementAndGet();
+					return task;
+				}
+			}
+			return null;
+		}
+
+		public void drain(long budgetNanos) {
+			final long start = System.nanoTime();
+			final int queued = pending.get();
+			int drained = 0;
+
+			ITask task;
+			// always execute at least one task, so slow calls can't block queue forever
+			while ((task = poll()) != null) {
+				try {
+					task.execute();
+				} catch (Throwable t) {
+					Log.warn(t, "Failed to execute synchronous call");
+				}
+				drained++;
+				if (System.nanoTime() - start > budgetNanos) break;
+			}
+
+			final int carriedOver = pending.get();
+			stats.queued = queued;
+			stats.lastDrained = drained;
+			stats.lastCarriedOver = carriedOver;
+			stats.lastTimeNanos = System.nanoTime() - start;
+			stats.totalDrained += drained;
+			if (carriedOver > 0) stats.ticksWithCarryOver++;
+		}
+
+		public void close() {
+			closed = true;
+			cancel();
+		}
+
+		private void cancel() {
+			ITask task;
+			while ((task = poll()) != null) {
+				try {
+					task.cancel();
+				} catch (Throwable t) {
+					Log.warn(t, "Failed to cancel synchronous call");
+				}
+			}
+		}
+	}
+
+	public static final SyncCallScheduler INSTANCE = new SyncCallScheduler();
+
+	private final ConcurrentMap<Integer, WorldQueue> worlds = Maps.newConcurrentMap();
+
+	// calls may still arrive for unloaded world, they should not create new queue for it
+	private final Set<World> unloadedWorlds = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<World, Boolean>()));
+
+	private SyncCallScheduler() {}
+
+	private WorldQueue getQueue(int dimension) {
+		WorldQueue queue = worlds.get(dimension);
+		if (queue == null) {
+			queue = new WorldQueue();
+			WorldQueue prev = worlds.putIfAbsent(dimension, queue);
+			if (prev != null) queue = prev;
+		}
+		return queue;
+	}
+
+	public void schedule(World world, TickPriority priority, ITask task) {
+		if (unloadedWorlds.contains(world)) {
+			task.cancel();
+			return;
+		}
+
+		final int dimension = world.provider.dimensionId;
+		final WorldQueue queue = getQueue(dimension);
+		queue.add(priority, task);
+
+		// world unloaded after first check - queue may have been created after it was removed
+		if (unloadedWorlds.contains(world)) {
+			worlds.remove(dimension, queue);
+			queue.close();
+		}
+	}
+
+	public Map<Integer, WorldStats> getStats() {
+		ImmutableMap.Builder<Integer, WorldStats> result = ImmutableMap.builder();
+		for (Map.Entry<Integer, WorldQueue> e : worlds.entrySet())
+			result.put(e.getKey(), e.getValue().stats);
+		return result.build();
+	}
+
+	@SubscribeEvent
+	public void onWorldTick(TickEvent.WorldTickEvent evt) {
+		if (evt.phase != Phase.END || evt.world.isRemote) return;
+
+		WorldQueue queue = worlds.get(evt.world.provider.dimensionId);
+		if (queue != null) queue.drain(Config.syncCallTickBudget * 1000L);
+	}
+
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload evt) {
+		if (evt.world.isRemote) return;
+
+		unloadedWorlds.add(evt.world);
+		WorldQueue queue = worlds.remove(evt.world.provider.dimensionId);
+		if (queue != null) queue.close();
+	}
+}
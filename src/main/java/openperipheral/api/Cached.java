@@ -0,0 +1,13 @@
+package openperipheral.api;
+
+import java.lang.annotation.*;
+
+/**
+ * Results of method marked with this annotation will be reused for calls with same target and arguments for given number of ticks.
+ * Use only on methods without side effects and with results that don't depend on caller (i.e. getters)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Cached {
+	int ticks() default 1;
+}
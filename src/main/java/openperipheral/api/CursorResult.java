@@ -0,0 +1,11 @@
+package openperipheral.api;
+
+import java.lang.annotation.*;
+
+/**
+ * Result of method marked with this annotation (collection, map or array) is not converted to table. Instead Lua receives cursor object with methods {@code next(count)}, {@code count()}, {@code seek(position)} and {@code close()}, which convert only requested part of result.
+ * Unused cursors are closed after time configured in OpenPeripheral config. Declare return type as {@link LuaType#OBJECT}
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CursorResult {}
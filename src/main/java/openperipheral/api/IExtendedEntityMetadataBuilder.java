@@ -0,0 +1,33 @@
+package openperipheral.api;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.util.Vec3;
+
+/**
+ * Additional methods of {@link IEntityMetadataBuilder}, kept separate so implementations of original interface are still valid
+ */
+public interface IExtendedEntityMetadataBuilder extends IEntityMetadataBuilder {
+
+	/**
+	 * Calculates only requested entries. Providers with other keys are not called
+	 *
+	 * @param keys
+	 *            requested keys, null if all entries are needed
+	 */
+	public Map<String, Object> getEntityMetadata(Entity entity, Vec3 relativePos, Set<String> keys);
+
+	/**
+	 * Describes many entities at once. Result is table of columns (lists with one entry per entity, in iteration order):
+	 * {@code id}, {@code x}, {@code y}, {@code z} (included when {@code position} is requested), {@code name}, {@code uuid}, {@code ridingEntity} (-1 if entity is not riding),
+	 * plus {@code count} and {@code providers} (table of provider key to column, false where provider is not applicable).
+	 * Columns never contain nils, so they are valid Lua sequences. Values have same types as in {@link #getEntityMetadata(Entity, Vec3)}.
+	 * 
+	 * @param keys
+	 *            requested keys, null if all entries are needed
+	 */
+	public Map<String, Object> getEntitiesMetadata(Collection<? extends Entity> entities, Vec3 relativePos, Set<String> keys);
+}
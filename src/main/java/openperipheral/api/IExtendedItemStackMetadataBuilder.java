@@ -0,0 +1,27 @@
+package openperipheral.api;
+
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.item.ItemStack;
+
+/**
+ * Additional methods of {@link IItemStackMetadataBuilder}, kept separate so implementations of original interface are still valid
+ */
+public interface IExtendedItemStackMetadataBuilder extends IItemStackMetadataBuilder {
+
+	/**
+	 * Calculates only requested entries (cheap basic properties may be still included). Providers with other keys are not called
+	 *
+	 * @param keys
+	 *            requested keys, null if all entries are needed
+	 */
+	public Map<String, Object> getItemStackMetadata(ItemStack stack, Set<String> keys);
+
+	/**
+	 * Writes same entries as {@link #getItemStackMetadata(ItemStack)} directly into sink, without creating intermediate map
+	 */
+	public void fillItemStackMetadata(ItemStack stack, ILuaTableSink sink);
+
+	public void fillItemStackMetadata(ItemStack stack, ILuaTableSink sink, Set<String> keys);
+}
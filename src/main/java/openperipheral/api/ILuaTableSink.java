@@ -0,0 +1,13 @@
+package openperipheral.api;
+
+/**
+ * Lua table under construction, supplied by {@link ITypeConvertersRegistry} to {@link IStreamingTypeConverter}.
+ * Keys and values are converted to Lua types when added, so nested structures are built only once.
+ */
+public interface ILuaTableSink {
+
+	/**
+	 * Entries with {@code null} value are ignored
+	 */
+	public void put(Object key, Object value);
+}
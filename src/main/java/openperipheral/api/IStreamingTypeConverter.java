@@ -0,0 +1,13 @@
+package openperipheral.api;
+
+/**
+ * Type converter that writes converted tables directly into Lua table provided by registry, instead of building intermediate Java maps.
+ * Registry will prefer {@link #toLua(ITypeConvertersRegistry, Object, ILuaTableSink)} over {@link #toLua(ITypeConvertersRegistry, Object)}, but both must be implemented.
+ */
+public interface IStreamingTypeConverter extends ITypeConverter {
+
+	/**
+	 * @return false if this converter is not handling this object. In that case sink must not be modified
+	 */
+	public boolean toLua(ITypeConvertersRegistry registry, Object obj, ILuaTableSink sink);
+}
@@ -0,0 +1,11 @@
+package openperipheral.api;
+
+/**
+ * Marker for type converters that can be called from many threads at once.
+ * Large collections may be converted in parallel, but only if every converter involved in conversion of their elements implements this interface.
+ * Otherwise conversion falls back to single thread.
+ * Converters that call external code (i.e. metadata providers or item and fluid methods) should not implement it, since that code was never written to be called concurrently.
+ */
+public interface IThreadSafeConverter extends ITypeConverter {
+
+}
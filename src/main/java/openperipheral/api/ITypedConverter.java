@@ -0,0 +1,13 @@
+package openperipheral.api;
+
+/**
+ * Type converter that declares which Java types it can convert to Lua.
+ * {@link #toLua(ITypeConvertersRegistry, Object)} will only be called for values of classes accepted by {@link #isApplicable(Class)}, which allows registry to skip this converter for other types
+ */
+public interface ITypedConverter extends ITypeConverter {
+
+	/**
+	 * Result for given class should never change, since it's cached
+	 */
+	public boolean isApplicable(Class<?> cls);
+}
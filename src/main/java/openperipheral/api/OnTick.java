@@ -10,4 +10,9 @@ import java.lang.annotation.*;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface OnTick {
 	boolean value() default true;
+
+	/**
+	 * Calls are executed in limited time slice every tick, so calls with lower priority may be delayed to next ticks
+	 */
+	TickPriority priority() default TickPriority.NORMAL;
 }
@@ -0,0 +1,10 @@
+package openperipheral.api;
+
+/**
+ * Order in which queued {@link OnTick} calls are executed. Calls with higher priority are always executed before lower ones, so use {@link #BULK} for expensive scans and {@link #INTERACTIVE} for calls that user waits for.
+ */
+public enum TickPriority {
+	INTERACTIVE,
+	NORMAL,
+	BULK
+}
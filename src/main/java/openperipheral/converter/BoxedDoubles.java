@@ -0,0 +1,38 @@
+package openperipheral.converter;
+
+/**
+ * Cache of boxed Doubles for small integers (indices, redstone levels, etc.), similar to {@link Integer#valueOf(int)}
+ */
+public class BoxedDoubles {
+
+	private static final int MIN = -128;
+
+	private static final int MAX = 1024;
+
+	private static final Double[] CACHE = new Double[MAX - MIN + 1];
+
+	static {
+		for (int i = 0; i < CACHE.length; i++)
+			CACHE[i] = Double.valueOf(i + MIN);
+	}
+
+	public static Double valueOf(int value) {
+		return (value >= MIN && value <= MAX)? CACHE[value - MIN] : Double.valueOf(value);
+	}
+
+	public static Double valueOf(long value) {
+		return (value >= MIN && value <= MAX)? CACHE[(int)value - MIN] : Double.valueOf(value);
+	}
+
+	public static Double valueOf(double value) {
+		final int intValue = (int)value;
+		return (intValue == value && intValue >= MIN && intValue <= MAX && (intValue != 0 || 1 / value > 0))? CACHE[intValue - MIN] : Double.valueOf(value);
+	}
+
+	public static Double valueOf(Number value) {
+		if (value instanceof Double) return (Double)value;
+		if (value instanceof Integer || value instanceof Short || value instanceof Byte) return valueOf(value.intValue());
+		if (value instanceof Long) return valueOf(value.longValue());
+		return Double.valueOf(value.doubleValue());
+	}
+}
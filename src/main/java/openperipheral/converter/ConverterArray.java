@@ -3,12 +3,32 @@ package openperipheral.converter;
 import java.lang.reflect.Array;
 import java.util.Map;
 
-import openperipheral.api.ITypeConverter;
+import openperipheral.api.IThreadSafeConverter;
 import openperipheral.api.ITypeConvertersRegistry;
+import openperipheral.api.ITypedConverter;
 
-import com.google.common.collect.Maps;
+public class ConverterArray implements ITypedConverter, IThreadSafeConverter {
 
-public class ConverterArray implements ITypeConverter {
+	/**
+	 * Maps key of dense table to array index
+	 * 
+	 * @return array index or -1 if key is not integer in [firstIndex, firstIndex + size)
+	 */
+	static int getDenseIndex(Object key, int firstIndex, int size) {
+		if (!(key instanceof Number)) return -1;
+		final double value = ((Number)key).doubleValue();
+		final int index = (int)value;
+		if (index != value) return -1;
+		final int result = index - firstIndex;
+		return (result >= 0 && result < size)? result : -1;
+	}
+
+	/**
+	 * Lua tables are 1-based, but 0-based ones are also accepted
+	 */
+	static int getFirstIndex(Map<?, ?> table) {
+		return (table.containsKey(0.0) || table.containsKey(0))? 0 : 1;
+	}
 
 	@Override
 	public Object fromLua(ITypeConvertersRegistry registry, Object o, Class<?> required) {
@@ -20,28 +40,16 @@ public class ConverterArray implements ITypeConverter {
 
 			if (m.isEmpty()) return Array.newInstance(component, 0);
 
-			int indexMin = Integer.MAX_VALUE;
-			int indexMax = Integer.MIN_VALUE;
+			// keys are unique, so 'size' valid keys fill whole array
+			final int size = m.size();
+			final int firstIndex = getFirstIndex(m);
+			final FromLuaConverter converter = FromLuaConverter.forType(component);
+			final Object result = converter.createArray(size);
 
-			Map<Integer, Object> tmp = Maps.newHashMap();
 			for (Map.Entry<Object, Object> e : m.entrySet()) {
-				Object k = e.getKey();
-				if (!(k instanceof Number)) return null;
-				int index = ((Number)k).intValue();
-				if (index < indexMin) indexMin = index;
-				if (index > indexMax) indexMax = index;
-				tmp.put(index, e.getValue());
-			}
-
-			int size = indexMax - indexMin + 1;
-			if (size != tmp.size() || (indexMin != 0 && indexMin != 1)) return null;
-
-			Object result = Array.newInstance(component, size);
-			for (int i = 0, index = indexMin; i < size; i++, index++) {
-				Object in = tmp.get(index);
-				Object out = registry.fromLua(in, component);
-				if (out == null) return null;
-				Array.set(result, i, out);
+				final int index = getDenseIndex(e.getKey(), firstIndex, size);
+				if (index < 0) return null;
+				if (!converter.convertInto(result, index, e.getValue())) return null;
 			}
 
 			return result;
@@ -52,16 +60,62 @@ public class ConverterArray implements ITypeConverter {
 
 	@Override
 	public Object toLua(ITypeConvertersRegistry registry, Object o) {
-		if (o.getClass().isArray()) {
-			Map<Object, Object> ret = Maps.newHashMap();
-			int length = Array.getLength(o);
-			for (int i = 0; i < length; i++) {
-				Object value = Array.get(o, i);
-				ret.put(i + 1, registry.toLua(value));
-			}
-			return ret;
+		final Class<?> component = o.getClass().getComponentType();
+		if (component == null) return null;
+		if (registry instanceof ITableSizeTracker) ((ITableSizeTracker)registry).addEntries(Array.getLength(o));
+		if (component.isPrimitive()) return new LuaArrayTable(primitiveToLua(o, component));
+
+		final Object[] array = (Object[])o;
+		final Object[] result = new Object[array.length];
+		for (int i = 0; i < array.length; i++)
+			result[i] = registry.toLua(array[i]);
+		return new LuaArrayTable(result);
+	}
+
+	private static Object[] primitiveToLua(Object o, Class<?> component) {
+		final int length = Array.getLength(o);
+		final Object[] result = new Object[length];
+
+		if (component == int.class) {
+			final int[] array = (int[])o;
+			for (int i = 0; i < length; i++)
+				result[i] = BoxedDoubles.valueOf(array[i]);
+		} else if (component == double.class) {
+			final double[] array = (double[])o;
+			for (int i = 0; i < length; i++)
+				result[i] = BoxedDoubles.valueOf(array[i]);
+		} else if (component == byte.class) {
+			final byte[] array = (byte[])o;
+			for (int i = 0; i < length; i++)
+				result[i] = BoxedDoubles.valueOf(array[i]);
+		} else if (component == short.class) {
+			final short[] array = (short[])o;
+			for (int i = 0; i < length; i++)
+				result[i] = BoxedDoubles.valueOf(array[i]);
+		} else if (component == long.class) {
+			final long[] array = (long[])o;
+			for (int i = 0; i < length; i++)
+				result[i] = BoxedDoubles.valueOf(array[i]);
+		} else if (component == float.class) {
+			final float[] array = (float[])o;
+			for (int i = 0; i < length; i++)
+				result[i] = BoxedDoubles.valueOf(array[i]);
+		} else if (component == boolean.class) {
+			final boolean[] array = (boolean[])o;
+			for (int i = 0; i < length; i++)
+				result[i] = Boolean.valueOf(array[i]);
+		} else if (component == char.class) {
+			final char[] array = (char[])o;
+			for (int i = 0; i < length; i++)
+				result[i] = String.valueOf(array[i]);
 		}
-		return null;
+
+		return result;
+	}
+
+	@Override
+	public boolean isApplicable(Class<?> cls) {
+		return cls.isArray();
 	}
 
 }
@@ -1,10 +1,11 @@
 package openperipheral.converter;
 
 import openmods.utils.ReflectionHelper;
-import openperipheral.api.ITypeConverter;
+import openperipheral.api.IThreadSafeConverter;
 import openperipheral.api.ITypeConvertersRegistry;
+import openperipheral.api.ITypedConverter;
 
-public class ConverterDefault implements ITypeConverter {
+public class ConverterDefault implements ITypedConverter, IThreadSafeConverter {
 
 	@Override
 	public Object fromLua(ITypeConvertersRegistry registry, Object obj, Class<?> expected) {
@@ -19,4 +20,9 @@ public class ConverterDefault implements ITypeConverter {
 		return null;
 	}
 
+	@Override
+	public boolean isApplicable(Class<?> cls) {
+		return cls == Boolean.class;
+	}
+
 }
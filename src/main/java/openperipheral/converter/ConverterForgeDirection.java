@@ -4,10 +4,11 @@ import java.util.Arrays;
 import java.util.List;
 
 import net.minecraftforge.common.util.ForgeDirection;
-import openperipheral.api.ITypeConverter;
+import openperipheral.api.IThreadSafeConverter;
 import openperipheral.api.ITypeConvertersRegistry;
+import openperipheral.api.ITypedConverter;
 
-public class ConverterForgeDirection implements ITypeConverter {
+public class ConverterForgeDirection implements ITypedConverter, IThreadSafeConverter {
 
 	public static List<String> directions = Arrays.asList(new String[] { "down", "up", "north", "south", "west", "east" });
 
@@ -28,4 +29,9 @@ public class ConverterForgeDirection implements ITypeConverter {
 		return null;
 	}
 
+	@Override
+	public boolean isApplicable(Class<?> cls) {
+		return cls == ForgeDirection.class;
+	}
+
 }
@@ -1,14 +1,13 @@
 package openperipheral.converter;
 
-import java.util.Map;
-
-import openperipheral.api.ITypeConverter;
+import openperipheral.api.ILuaTableSink;
+import openperipheral.api.IThreadSafeConverter;
 import openperipheral.api.ITypeConvertersRegistry;
+import openperipheral.api.ITypedConverter;
 
-import com.google.common.collect.Maps;
 import com.mojang.authlib.GameProfile;
 
-public class ConverterGameProfile implements ITypeConverter {
+public class ConverterGameProfile extends StreamingTypeConverter implements ITypedConverter, IThreadSafeConverter {
 
 	@Override
 	public Object fromLua(ITypeConvertersRegistry registry, Object obj, Class<?> expected) {
@@ -16,16 +15,20 @@ public class ConverterGameProfile implements ITypeConverter {
 	}
 
 	@Override
-	public Object toLua(ITypeConvertersRegistry registry, Object obj) {
+	public boolean toLua(ITypeConvertersRegistry registry, Object obj, ILuaTableSink sink) {
 		if (obj instanceof GameProfile) {
 			GameProfile profile = (GameProfile)obj;
-			Map<String, Object> map = Maps.newHashMap();
-			map.put("name", profile.getName());
-			map.put("uuid", profile.getId().toString());
-			return map;
+			sink.put("name", profile.getName());
+			sink.put("uuid", profile.getId().toString());
+			return true;
 		}
 
-		return null;
+		return false;
+	}
+
+	@Override
+	public boolean isApplicable(Class<?> cls) {
+		return GameProfile.class.isAssignableFrom(cls);
 	}
 
 }
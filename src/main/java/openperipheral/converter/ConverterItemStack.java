@@ -1,18 +1,18 @@
 package openperipheral.converter;
 
 import java.util.Map;
+import java.util.Set;
 
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
-import openperipheral.api.ITypeConverter;
+import net.minecraft.nbt.NBTTagCompound;
 import openperipheral.api.ITypeConvertersRegistry;
+import openperipheral.api.ITypedConverter;
+import openperipheral.meta.ItemLookup;
+import openperipheral.meta.ItemMetadataCache;
 import openperipheral.meta.ItemStackMetadataBuilder;
 
-import com.google.common.base.Preconditions;
-
-import cpw.mods.fml.common.registry.GameRegistry;
-
-public class ConverterItemStack implements ITypeConverter {
+public class ConverterItemStack implements ITypedConverter {
 
 	private ItemStackMetadataBuilder BUILDER = new ItemStackMetadataBuilder();
 
@@ -21,20 +21,24 @@ public class ConverterItemStack implements ITypeConverter {
 		if (required == ItemStack.class && o instanceof Map) {
 			Map<?, ?> m = (Map<?, ?>)o;
 
-			// TODO check
 			Object id = m.get("id");
-			Preconditions.checkArgument(id instanceof String, "Invalid item id");
-
-			String[] parts = ((String)id).split(":");
-			Preconditions.checkArgument(parts.length == 2, "Invalid item id");
-			String modId = parts[0];
-			String name = parts[1];
-			Item item = GameRegistry.findItem(modId, name);
+			if (!(id instanceof String)) throw new IllegalArgumentException("Item id must be string, got " + id);
+			Item item = ItemLookup.findItem((String)id);
 
 			int quantity = getIntValue(m, "qty", 1);
 			int dmg = getIntValue(m, "dmg", 0);
 
-			return new ItemStack(item, quantity, dmg);
+			ItemStack result = new ItemStack(item, quantity, dmg);
+
+			Object nbtHash = m.get("nbt_hash");
+			if (nbtHash != null) {
+				if (!(nbtHash instanceof String)) throw new IllegalArgumentException("NBT hash must be string, got " + nbtHash);
+				NBTTagCompound tag = ItemLookup.findTag((String)nbtHash);
+				if (tag == null) throw new IllegalArgumentException("Unknown NBT hash '" + nbtHash + "', item must be described again");
+				result.setTagCompound((NBTTagCompound)tag.copy());
+			}
+
+			return result;
 		}
 		return null;
 	}
@@ -49,11 +53,25 @@ public class ConverterItemStack implements ITypeConverter {
 	@Override
 	public Object toLua(ITypeConvertersRegistry registry, Object o) {
 		if (o instanceof ItemStack) {
-			Object meta = BUILDER.getItemStackMetadata((ItemStack)o);
-			return registry.toLua(meta);
+			final ItemStack stack = (ItemStack)o;
+			ShapedTable result = ItemMetadataCache.INSTANCE.get(stack);
+			if (result == null) {
+				// partial results can't be reused, so with cache enabled whole description is built (query projects it later)
+				final boolean isCached = ItemMetadataCache.INSTANCE.isEnabled();
+				final Set<String> keys = (!isCached && registry instanceof IRequestedKeysProvider)? ((IRequestedKeysProvider)registry).getRequestedKeys(o) : null;
+				result = new ShapedTable(ItemStackMetadataBuilder.SHAPE);
+				BUILDER.fillItemStackMetadata(stack, new ShapedTableSink(registry, result), keys);
+				if (isCached) ItemMetadataCache.INSTANCE.put(stack, result);
+			}
+			return result;
 		}
 
 		return null;
 	}
 
+	@Override
+	public boolean isApplicable(Class<?> cls) {
+		return ItemStack.class.isAssignableFrom(cls);
+	}
+
 }
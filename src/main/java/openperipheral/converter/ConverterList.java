@@ -1,16 +1,16 @@
 package openperipheral.converter;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
-import openperipheral.api.ITypeConverter;
+import openperipheral.api.IThreadSafeConverter;
 import openperipheral.api.ITypeConvertersRegistry;
+import openperipheral.api.ITypedConverter;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 
-public class ConverterList implements ITypeConverter {
+public class ConverterList implements ITypedConverter, IThreadSafeConverter {
 
 	@Override
 	public Object fromLua(ITypeConvertersRegistry registry, Object obj, Class<?> expected) {
@@ -20,30 +20,17 @@ public class ConverterList implements ITypeConverter {
 
 			if (m.isEmpty()) return ImmutableList.of();
 
-			int indexMin = Integer.MAX_VALUE;
-			int indexMax = Integer.MIN_VALUE;
+			final int size = m.size();
+			final int firstIndex = ConverterArray.getFirstIndex(m);
+			final Object[] result = new Object[size];
 
-			Map<Integer, Object> tmp = Maps.newHashMap();
 			for (Map.Entry<Object, Object> e : m.entrySet()) {
-				Object k = e.getKey();
-				if (!(k instanceof Number)) return null;
-				int index = ((Number)k).intValue();
-				if (index < indexMin) indexMin = index;
-				if (index > indexMax) indexMax = index;
-				tmp.put(index, e.getValue());
+				final int index = ConverterArray.getDenseIndex(e.getKey(), firstIndex, size);
+				if (index < 0) return null;
+				result[index] = e.getValue();
 			}
 
-			int size = indexMax - indexMin + 1;
-			if (size != tmp.size() || (indexMin != 0 && indexMin != 1)) return null;
-
-			List<Object> result = Lists.newArrayList();
-
-			for (int index = indexMin; index <= indexMax; index++) {
-				Object o = tmp.get(index);
-				result.add(o);
-			}
-
-			return result;
+			return Arrays.asList(result);
 		}
 
 		return null;
@@ -52,17 +39,32 @@ public class ConverterList implements ITypeConverter {
 	@Override
 	public Object toLua(ITypeConvertersRegistry registry, Object obj) {
 		if (obj instanceof List) {
-			Map<Integer, Object> ret = Maps.newHashMap();
-
 			@SuppressWarnings("unchecked")
 			List<Object> objList = (List<Object>)obj;
 
-			for (int i = 0; i < objList.size(); i++) {
-				ret.put(i + 1, registry.toLua(objList.get(i)));
+			final int size = objList.size();
+			if (registry instanceof ITableSizeTracker) ((ITableSizeTracker)registry).addEntries(size);
+
+			final Object[] result = new Object[size];
+
+			int i = 0;
+			for (Object value : objList) {
+				// most lists contain only numbers or strings, no need to ask registry
+				final Object converted;
+				if (value instanceof Number) converted = BoxedDoubles.valueOf((Number)value);
+				else if (value instanceof String) converted = value;
+				else converted = registry.toLua(value);
+
+				result[i++] = converted;
 			}
-			return ret;
+			return new LuaArrayTable(result);
 		}
 		return null;
 	}
 
+	@Override
+	public boolean isApplicable(Class<?> cls) {
+		return List.class.isAssignableFrom(cls);
+	}
+
 }
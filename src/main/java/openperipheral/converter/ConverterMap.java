@@ -2,12 +2,12 @@ package openperipheral.converter;
 
 import java.util.Map;
 
-import openperipheral.api.ITypeConverter;
+import openperipheral.api.ILuaTableSink;
+import openperipheral.api.IThreadSafeConverter;
 import openperipheral.api.ITypeConvertersRegistry;
+import openperipheral.api.ITypedConverter;
 
-import com.google.common.collect.Maps;
-
-public class ConverterMap implements ITypeConverter {
+public class ConverterMap extends StreamingTypeConverter implements ITypedConverter, IThreadSafeConverter {
 
 	@Override
 	public Object fromLua(ITypeConvertersRegistry registry, Object obj, Class<?> expected) {
@@ -17,19 +17,19 @@ public class ConverterMap implements ITypeConverter {
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
-	public Object toLua(ITypeConvertersRegistry registry, Object obj) {
+	public boolean toLua(ITypeConvertersRegistry registry, Object obj, ILuaTableSink sink) {
 		if (obj instanceof Map) {
-			Map<Object, Object> transformed = Maps.newHashMap();
-			for (Map.Entry<Object, Object> e : ((Map<Object, Object>)obj).entrySet()) {
-				Object k = registry.toLua(e.getKey());
-				Object v = registry.toLua(e.getValue());
-				transformed.put(k, v);
-			}
-			return transformed;
+			for (Map.Entry<?, ?> e : ((Map<?, ?>)obj).entrySet())
+				sink.put(e.getKey(), e.getValue());
+			return true;
 		}
 
-		return null;
+		return false;
+	}
+
+	@Override
+	public boolean isApplicable(Class<?> cls) {
+		return Map.class.isAssignableFrom(cls);
 	}
 
 }
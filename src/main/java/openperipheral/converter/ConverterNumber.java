@@ -1,9 +1,10 @@
 package openperipheral.converter;
 
-import openperipheral.api.ITypeConverter;
+import openperipheral.api.IThreadSafeConverter;
 import openperipheral.api.ITypeConvertersRegistry;
+import openperipheral.api.ITypedConverter;
 
-public class ConverterNumber implements ITypeConverter {
+public class ConverterNumber implements ITypedConverter, IThreadSafeConverter {
 
 	@Override
 	public Object fromLua(ITypeConvertersRegistry registry, Object o, Class<?> required) {
@@ -35,7 +36,12 @@ public class ConverterNumber implements ITypeConverter {
 
 	@Override
 	public Object toLua(ITypeConvertersRegistry registry, Object o) {
-		return (o instanceof Number)? ((Number)o).doubleValue() : null;
+		return (o instanceof Number)? BoxedDoubles.valueOf((Number)o) : null;
+	}
+
+	@Override
+	public boolean isApplicable(Class<?> cls) {
+		return Number.class.isAssignableFrom(cls);
 	}
 
 }
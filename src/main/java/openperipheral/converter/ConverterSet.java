@@ -3,13 +3,14 @@ package openperipheral.converter;
 import java.util.Map;
 import java.util.Set;
 
-import openperipheral.api.ITypeConverter;
+import openperipheral.api.ILuaTableSink;
+import openperipheral.api.IThreadSafeConverter;
 import openperipheral.api.ITypeConvertersRegistry;
+import openperipheral.api.ITypedConverter;
 
-import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
-public class ConverterSet implements ITypeConverter {
+public class ConverterSet extends StreamingTypeConverter implements ITypedConverter, IThreadSafeConverter {
 
 	@Override
 	@SuppressWarnings({ "unchecked", "rawtypes" })
@@ -20,16 +21,18 @@ public class ConverterSet implements ITypeConverter {
 	}
 
 	@Override
-	@SuppressWarnings({ "rawtypes" })
-	public Object toLua(ITypeConvertersRegistry registry, Object obj) {
+	public boolean toLua(ITypeConvertersRegistry registry, Object obj, ILuaTableSink sink) {
 		if (obj instanceof Set) {
-			Map<Object, Boolean> result = Maps.newHashMap();
-			for (Object e : (Set)obj) {
-				result.put(registry.toLua(e), true);
-			}
-			return result;
+			for (Object e : (Set<?>)obj)
+				sink.put(e, Boolean.TRUE);
+			return true;
 		}
-		return null;
+		return false;
+	}
+
+	@Override
+	public boolean isApplicable(Class<?> cls) {
+		return Set.class.isAssignableFrom(cls);
 	}
 
 }
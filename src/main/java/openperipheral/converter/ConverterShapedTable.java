@@ -0,0 +1,30 @@
+package openperipheral.converter;
+
+import java.util.Set;
+
+import openperipheral.api.IThreadSafeConverter;
+import openperipheral.api.ITypeConvertersRegistry;
+import openperipheral.api.ITypedConverter;
+
+public class ConverterShapedTable implements ITypedConverter, IThreadSafeConverter {
+
+	@Override
+	public Object fromLua(ITypeConvertersRegistry registry, Object obj, Class<?> expected) {
+		return null;
+	}
+
+	@Override
+	public Object toLua(ITypeConvertersRegistry registry, Object obj) {
+		if (obj instanceof ShapedTable) {
+			final Set<String> keys = (registry instanceof IRequestedKeysProvider)? ((IRequestedKeysProvider)registry).getRequestedKeys(obj) : null;
+			return ((ShapedTable)obj).convertValues(registry, keys);
+		}
+
+		return null;
+	}
+
+	@Override
+	public boolean isApplicable(Class<?> cls) {
+		return ShapedTable.class.isAssignableFrom(cls);
+	}
+}
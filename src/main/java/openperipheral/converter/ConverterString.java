@@ -1,9 +1,9 @@
 package openperipheral.converter;
 
-import openperipheral.api.ITypeConverter;
 import openperipheral.api.ITypeConvertersRegistry;
+import openperipheral.api.ITypedConverter;
 
-public class ConverterString implements ITypeConverter {
+public class ConverterString implements ITypedConverter {
 
 	@Override
 	public Object fromLua(ITypeConvertersRegistry registry, Object obj, Class<?> expected) {
@@ -17,4 +17,9 @@ public class ConverterString implements ITypeConverter {
 		return obj.toString(); // catch-all
 	}
 
+	@Override
+	public boolean isApplicable(Class<?> cls) {
+		return true;
+	}
+
 }
@@ -0,0 +1,256 @@
+package openperipheral.converter;
+
+import java.lang.reflect.Array;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+import openperipheral.TypeConversionRegistry;
+import openperipheral.api.ITypeConverter;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Conversion from Lua value to single, fixed Java type. Common cases (numbers, strings, tables to lists and arrays) are handled directly, everything else is passed to {@link TypeConversionRegistry}
+ */
+public class FromLuaConverter {
+
+	private static final ConcurrentMap<Class<?>, FromLuaConverter> CACHE = Maps.newConcurrentMap();
+
+	protected final Class<?> type;
+
+	protected final boolean isPrimitive;
+
+	protected FromLuaConverter(Class<?> type) {
+		this.type = type;
+		this.isPrimitive = type.isPrimitive();
+	}
+
+	/**
+	 * @return converted value or null, if value can't be converted
+	 */
+	public Object convert(Object value) {
+		return TypeConversionRegistry.INSTANCE.fromLua(value, type);
+	}
+
+	public Object createArray(int length) {
+		return Array.newInstance(type, length);
+	}
+
+	/**
+	 * Convert value and store it in array created by {@link #createArray(int)}
+	 * 
+	 * @return false if value can't be converted
+	 */
+	public boolean convertInto(Object array, int index, Object value) {
+		Object converted = convert(value);
+		if (converted == null) return false;
+
+		if (isPrimitive) Array.set(array, index, converted);
+		else ((Object[])array)[index] = converted;
+		return true;
+	}
+
+	private abstract static class NumberConverter extends FromLuaConverter {
+
+		private NumberConverter(Class<?> type) {
+			super(type);
+		}
+
+		protected abstract Object fromNumber(Number value);
+
+		protected abstract void setPrimitive(Object array, int index, Number value);
+
+		@Override
+		public Object convert(Object value) {
+			if (value instanceof Number) return fromNumber((Number)value);
+			return super.convert(value);
+		}
+
+		@Override
+		public boolean convertInto(Object array, int index, Object value) {
+			if (value instanceof Number) {
+				if (isPrimitive) setPrimitive(array, index, (Number)value);
+				else ((Object[])array)[index] = fromNumber((Number)value);
+				return true;
+			}
+
+			return super.convertInto(array, index, value);
+		}
+	}
+
+	private static class IntConverter extends NumberConverter {
+		private IntConverter(Class<?> type) {
+			super(type);
+		}
+
+		@Override
+		protected Object fromNumber(Number value) {
+			return value.intValue();
+		}
+
+		@Override
+		protected void setPrimitive(Object array, int index, Number value) {
+			((int[])array)[index] = value.intValue();
+		}
+	}
+
+	private static class LongConverter extends NumberConverter {
+		private LongConverter(Class<?> type) {
+			super(type);
+		}
+
+		@Override
+		protected Object fromNumber(Number value) {
+			return value.longValue();
+		}
+
+		@Override
+		protected void setPrimitive(Object array, int index, Number value) {
+			((long[])array)[index] = value.longValue();
+		}
+	}
+
+	private static class ShortConverter extends NumberConverter {
+		private ShortConverter(Class<?> type) {
+			super(type);
+		}
+
+		@Override
+		protected Object fromNumber(Number value) {
+			return value.shortValue();
+		}
+
+		@Override
+		protected void setPrimitive(Object array, int index, Number value) {
+			((short[])array)[index] = value.shortValue();
+		}
+	}
+
+	private static class ByteConverter extends NumberConverter {
+		private ByteConverter(Class<?> type) {
+			super(type);
+		}
+
+		@Override
+		protected Object fromNumber(Number value) {
+			return value.byteValue();
+		}
+
+		@Override
+		protected void setPrimitive(Object array, int index, Number value) {
+			((byte[])array)[index] = value.byteValue();
+		}
+	}
+
+	private static class FloatConverter extends NumberConverter {
+		private FloatConverter(Class<?> type) {
+			super(type);
+		}
+
+		@Override
+		protected Object fromNumber(Number value) {
+			return value.floatValue();
+		}
+
+		@Override
+		protected void setPrimitive(Object array, int index, Number value) {
+			((float[])array)[index] = value.floatValue();
+		}
+	}
+
+	private static class DoubleConverter extends NumberConverter {
+		private DoubleConverter(Class<?> type) {
+			super(type);
+		}
+
+		@Override
+		protected Object fromNumber(Number value) {
+			return (value instanceof Double)? value : value.doubleValue();
+		}
+
+		@Override
+		protected void setPrimitive(Object array, int index, Number value) {
+			((double[])array)[index] = value.doubleValue();
+		}
+	}
+
+	private static class BooleanConverter extends FromLuaConverter {
+		private BooleanConverter(Class<?> type) {
+			super(type);
+		}
+
+		@Override
+		public Object convert(Object value) {
+			if (value instanceof Boolean) return value;
+			if (value instanceof Number) return ((Number)value).doubleValue() != 0;
+			return super.convert(value);
+		}
+
+		@Override
+		public boolean convertInto(Object array, int index, Object value) {
+			if (isPrimitive && value instanceof Boolean) {
+				((boolean[])array)[index] = (Boolean)value;
+				return true;
+			}
+
+			return super.convertInto(array, index, value);
+		}
+	}
+
+	private static class StringConverter extends FromLuaConverter {
+		private StringConverter() {
+			super(String.class);
+		}
+
+		@Override
+		public Object convert(Object value) {
+			if (value instanceof String) return value;
+			if (value instanceof Number || value instanceof Boolean) return value.toString();
+			return super.convert(value);
+		}
+	}
+
+	private static class TableConverter extends FromLuaConverter {
+		private final ITypeConverter converter;
+
+		private TableConverter(Class<?> type, ITypeConverter converter) {
+			super(type);
+			this.converter = converter;
+		}
+
+		@Override
+		public Object convert(Object value) {
+			if (value instanceof Map) {
+				Object result = converter.fromLua(TypeConversionRegistry.INSTANCE, value, type);
+				if (result != null) return result;
+			}
+
+			return super.convert(value);
+		}
+	}
+
+	private static FromLuaConverter createConverter(Class<?> type) {
+		if (type == int.class || type == Integer.class) return new IntConverter(type);
+		if (type == double.class || type == Double.class) return new DoubleConverter(type);
+		if (type == long.class || type == Long.class) return new LongConverter(type);
+		if (type == float.class || type == Float.class) return new FloatConverter(type);
+		if (type == short.class || type == Short.class) return new ShortConverter(type);
+		if (type == byte.class || type == Byte.class) return new ByteConverter(type);
+		if (type == boolean.class || type == Boolean.class) return new BooleanConverter(type);
+		if (type == String.class) return new StringConverter();
+		if (type == List.class) return new TableConverter(type, new ConverterList());
+		if (type.isArray()) return new TableConverter(type, new ConverterArray());
+		return new FromLuaConverter(type);
+	}
+
+	public static FromLuaConverter forType(Class<?> type) {
+		FromLuaConverter converter = CACHE.get(type);
+		if (converter == null) {
+			converter = createConverter(type);
+			FromLuaConverter prev = CACHE.putIfAbsent(type, converter);
+			if (prev != null) converter = prev;
+		}
+		return converter;
+	}
+}
@@ -0,0 +1,15 @@
+package openperipheral.converter;
+
+import java.util.Set;
+
+/**
+ * Implemented by registries passed to converters when only some keys of converted table will be used (see {@link ResultQuery}).
+ * Converters producing tables may use it to skip calculating other entries.
+ */
+public interface IRequestedKeysProvider {
+
+	/**
+	 * @return keys that will be used from table created for this value, or null if all are needed
+	 */
+	public Set<String> getRequestedKeys(Object value);
+}
@@ -0,0 +1,14 @@
+package openperipheral.converter;
+
+/**
+ * Implemented by registries passed to converters when size of converted result is limited.
+ * Converters building tables should report entries before converting them, so too large results are rejected before whole table is built.
+ */
+public interface ITableSizeTracker {
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if result would exceed size limit
+	 */
+	public void addEntries(int count);
+}
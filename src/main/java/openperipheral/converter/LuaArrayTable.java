@@ -0,0 +1,78 @@
+package openperipheral.converter;
+
+import java.util.*;
+
+/**
+ * Read-only Lua sequence (keys 1..n) backed by array. Values must be already converted to Lua types.
+ * Uses much less memory than {@link HashMap}, while still being accepted by ComputerCraft as table.
+ */
+public class LuaArrayTable extends AbstractMap<Object, Object> {
+
+	private final Object[] values;
+
+	public LuaArrayTable(Object[] values) {
+		this.values = values;
+	}
+
+	private int toIndex(Object key) {
+		if (!(key instanceof Number)) return -1;
+		final double value = ((Number)key).doubleValue();
+		final int index = (int)value;
+		return (index == value && index >= 1 && index <= values.length)? index - 1 : -1;
+	}
+
+	@Override
+	public int size() {
+		return values.length;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return values.length == 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return toIndex(key) >= 0;
+	}
+
+	@Override
+	public Object get(Object key) {
+		final int index = toIndex(key);
+		return index >= 0? values[index] : null;
+	}
+
+	@Override
+	public Set<Entry<Object, Object>> entrySet() {
+		return new AbstractSet<Entry<Object, Object>>() {
+			@Override
+			public Iterator<Entry<Object, Object>> iterator() {
+				return new Iterator<Entry<Object, Object>>() {
+					private int index;
+
+					@Override
+					public boolean hasNext() {
+						return index < values.length;
+					}
+
+					@Override
+					public Entry<Object, Object> next() {
+						if (index >= values.length) throw new NoSuchElementException();
+						final Object value = values[index++];
+						return new SimpleImmutableEntry<Object, Object>(BoxedDoubles.valueOf(index), value);
+					}
+
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return values.length;
+			}
+		};
+	}
+}
@@ -0,0 +1,50 @@
+package openperipheral.converter;
+
+import java.util.Map;
+import java.util.Set;
+
+import openperipheral.api.ILuaTableSink;
+import openperipheral.api.ITypeConvertersRegistry;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Sink that converts entries with registry and stores them in Lua table (map)
+ */
+public class LuaTableSink implements ILuaTableSink {
+
+	private final ITypeConvertersRegistry registry;
+
+	private final Map<Object, Object> table;
+
+	private final Set<String> requestedKeys;
+
+	private final ITableSizeTracker sizeTracker;
+
+	public LuaTableSink(ITypeConvertersRegistry registry) {
+		this(registry, null);
+	}
+
+	/**
+	 * @param requestedKeys
+	 *            entries with other keys are dropped before conversion, null if all entries are needed
+	 */
+	public LuaTableSink(ITypeConvertersRegistry registry, Set<String> requestedKeys) {
+		this.registry = registry;
+		this.table = Maps.newHashMap();
+		this.requestedKeys = requestedKeys;
+		this.sizeTracker = (registry instanceof ITableSizeTracker)? (ITableSizeTracker)registry : null;
+	}
+
+	@Override
+	public void put(Object key, Object value) {
+		if (value == null) return;
+		if (requestedKeys != null && !requestedKeys.contains(key)) return;
+		if (sizeTracker != null) sizeTracker.addEntries(1);
+		table.put(registry.toLua(key), registry.toLua(value));
+	}
+
+	public Map<Object, Object> getTable() {
+		return table;
+	}
+}
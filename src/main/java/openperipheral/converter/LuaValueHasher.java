@@ -0,0 +1,73 @@
+package openperipheral.converter;
+
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Calculates 64-bit structural hash of already converted Lua values. Tables are hashed independently of iteration order.
+ * Values that can't be compared by contents (like wrapped objects or cursors) are rejected, since their hash would change on every call.
+ */
+public class LuaValueHasher {
+
+	private static final long NIL = 0x9E3779B97F4A7C15L;
+	private static final long TRUE = 0x2545F4914F6CDD1DL;
+	private static final long FALSE = 0x5851F42D4C957F2DL;
+	private static final long TABLE = 0x14057B7EF767814FL;
+	private static final long VISITED = 0x27BB2EE687B0B0FDL;
+
+	private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+	private static final long FNV_PRIME = 0x100000001B3L;
+
+	private Set<Object> visited;
+
+	public static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	public static long hashString(String value) {
+		// FNV-1a over whole chars - String.hashCode is only 32-bit and has trivial collisions
+		long h = FNV_OFFSET;
+		final int length = value.length();
+		for (int i = 0; i < length; i++) {
+			h ^= value.charAt(i);
+			h *= FNV_PRIME;
+		}
+		return mix(h + length);
+	}
+
+	public static long hash(long seed, Object... values) {
+		final LuaValueHasher hasher = new LuaValueHasher();
+		long h = mix(seed);
+		for (Object value : values)
+			h = mix(h * 31 + hasher.hashValue(value));
+		return h;
+	}
+
+	private long hashValue(Object value) {
+		if (value == null) return NIL;
+		if (value instanceof Boolean) return ((Boolean)value)? TRUE : FALSE;
+		if (value instanceof Number) return mix(Double.doubleToLongBits(((Number)value).doubleValue()));
+		if (value instanceof String) return hashString((String)value);
+		if (value instanceof Map) return hashTable((Map<?, ?>)value);
+		throw new IllegalArgumentException("Value of type " + value.getClass().getName() + " can't be compared by contents");
+	}
+
+	private long hashTable(Map<?, ?> table) {
+		if (visited == null) visited = Sets.newIdentityHashSet();
+		if (!visited.add(table)) return VISITED;
+
+		long h = TABLE;
+		for (Map.Entry<?, ?> e : table.entrySet())
+			h += mix(hashValue(e.getKey()) * 31 + hashValue(e.getValue()));
+
+		visited.remove(table);
+		return mix(h + table.size());
+	}
+}
@@ -0,0 +1,239 @@
+package openperipheral.converter;
+
+import java.util.*;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Filter, projection and ordering applied to rows of collection result during conversion.
+ * Parsed from Lua table, i.e. <code>{fields = {"name", "qty"}, where = {qty = {min = 10}, id = {prefix = "minecraft:"}}, sortBy = "qty", descending = true, limit = 5}</code>.
+ * Rows that are not selected and fields that are not requested are never converted.
+ */
+public class ResultQuery {
+
+	public static final String FIELDS = "fields";
+	public static final String WHERE = "where";
+	public static final String SORT_BY = "sortBy";
+	public static final String DESCENDING = "descending";
+	public static final String LIMIT = "limit";
+
+	public static final String EQUALS = "equals";
+	public static final String MIN = "min";
+	public static final String MAX = "max";
+	public static final String PREFIX = "prefix";
+
+	private static class EqualsPredicate implements Predicate<Object> {
+		private final Object expected;
+
+		public EqualsPredicate(Object expected) {
+			this.expected = expected;
+		}
+
+		@Override
+		public boolean apply(Object input) {
+			if (expected instanceof Number) return (input instanceof Number) && ((Number)input).doubleValue() == ((Number)expected).doubleValue();
+			return expected.equals(input);
+		}
+	}
+
+	private static class RangePredicate implements Predicate<Object> {
+		private final double min;
+		private final double max;
+
+		public RangePredicate(double min, double max) {
+			this.min = min;
+			this.max = max;
+		}
+
+		@Override
+		public boolean apply(Object input) {
+			if (!(input instanceof Number)) return false;
+			final double value = ((Number)input).doubleValue();
+			return value >= min && value <= max;
+		}
+	}
+
+	private static class PrefixPredicate implements Predicate<Object> {
+		private final String prefix;
+
+		public PrefixPredicate(String prefix) {
+			this.prefix = prefix;
+		}
+
+		@Override
+		public boolean apply(Object input) {
+			return (input instanceof String) && ((String)input).startsWith(prefix);
+		}
+	}
+
+	private final Set<String> fields;
+
+	private final Map<String, Predicate<Object>[]> conditions;
+
+	private final String sortBy;
+
+	private final boolean descending;
+
+	private final int limit;
+
+	// fields needed to evaluate query, null if all fields are returned
+	private final Set<String> requestedKeys;
+
+	private ResultQuery(Set<String> fields, Map<String, Predicate<Object>[]> conditions, String sortBy, boolean descending, int limit) {
+		this.fields = fields;
+		this.conditions = conditions;
+		this.sortBy = sortBy;
+		this.descending = descending;
+		this.limit = limit;
+
+		if (fields != null) {
+			ImmutableSet.Builder<String> requestedKeys = ImmutableSet.builder();
+			requestedKeys.addAll(fields);
+			requestedKeys.addAll(conditions.keySet());
+			if (sortBy != null) requestedKeys.add(sortBy);
+			this.requestedKeys = requestedKeys.build();
+		} else {
+			this.requestedKeys = null;
+		}
+	}
+
+	private static double getNumber(Map<?, ?> spec, String key, double defaultValue) {
+		Object value = spec.get(key);
+		if (value == null) return defaultValue;
+		Preconditions.checkArgument(value instanceof Number, "Field '%s' must be number", key);
+		return ((Number)value).doubleValue();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Predicate<Object>[] parseCondition(Object field, Object condition) {
+		if (!(condition instanceof Map)) return new Predicate[] { new EqualsPredicate(condition) };
+
+		final Map<?, ?> spec = (Map<?, ?>)condition;
+		List<Predicate<Object>> result = Lists.newArrayList();
+
+		Object equals = spec.get(EQUALS);
+		if (equals != null) result.add(new EqualsPredicate(equals));
+
+		if (spec.containsKey(MIN) || spec.containsKey(MAX)) result.add(new RangePredicate(getNumber(spec, MIN, Double.NEGATIVE_INFINITY), getNumber(spec, MAX, Double.POSITIVE_INFINITY)));
+
+		Object prefix = spec.get(PREFIX);
+		if (prefix != null) {
+			Preconditions.checkArgument(prefix instanceof String, "Prefix for field '%s' must be string", field);
+			result.add(new PrefixPredicate((String)prefix));
+		}
+
+		Preconditions.checkArgument(!result.isEmpty(), "No valid conditions for field '%s'", field);
+		return result.toArray(new Predicate[result.size()]);
+	}
+
+	public static ResultQuery parse(Map<?, ?> spec) {
+		Set<String> fields = null;
+		Object fieldsSpec = spec.get(FIELDS);
+		if (fieldsSpec != null) {
+			Preconditions.checkArgument(fieldsSpec instanceof Map, "'%s' must be list of names", FIELDS);
+			ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+			for (Object field : ((Map<?, ?>)fieldsSpec).values()) {
+				Preconditions.checkArgument(field instanceof String, "Invalid field name: %s", field);
+				builder.add((String)field);
+			}
+			fields = builder.build();
+		}
+
+		ImmutableMap.Builder<String, Predicate<Object>[]> conditions = ImmutableMap.builder();
+		Object whereSpec = spec.get(WHERE);
+		if (whereSpec != null) {
+			Preconditions.checkArgument(whereSpec instanceof Map, "'%s' must be table", WHERE);
+			for (Map.Entry<?, ?> e : ((Map<?, ?>)whereSpec).entrySet()) {
+				Preconditions.checkArgument(e.getKey() instanceof String, "Invalid field name: %s", e.getKey());
+				conditions.put((String)e.getKey(), parseCondition(e.getKey(), e.getValue()));
+			}
+		}
+
+		Object sortBy = spec.get(SORT_BY);
+		Preconditions.checkArgument(sortBy == null || sortBy instanceof String, "'%s' must be field name", SORT_BY);
+
+		final boolean descending = Boolean.TRUE.equals(spec.get(DESCENDING));
+
+		final double limit = getNumber(spec, LIMIT, 0);
+		Preconditions.checkArgument(limit >= 0, "'%s' must not be negative", LIMIT);
+
+		return new ResultQuery(fields, conditions.build(), (String)sortBy, descending, (int)Math.min(limit, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * @return keys needed to evaluate this query or null, if all keys are used
+	 */
+	public Set<String> getRequestedKeys() {
+		return requestedKeys;
+	}
+
+	public boolean matches(Object row) {
+		if (conditions.isEmpty()) return true;
+		if (!(row instanceof Map)) return false;
+
+		final Map<?, ?> table = (Map<?, ?>)row;
+		for (Map.Entry<String, Predicate<Object>[]> e : conditions.entrySet()) {
+			final Object value = table.get(e.getKey());
+			for (Predicate<Object> p : e.getValue())
+				if (!p.apply(value)) return false;
+		}
+
+		return true;
+	}
+
+	public Object project(Object row) {
+		if (fields == null || !(row instanceof Map)) return row;
+
+		final Map<?, ?> table = (Map<?, ?>)row;
+		Map<Object, Object> result = Maps.newHashMapWithExpectedSize(fields.size());
+		for (String field : fields) {
+			Object value = table.get(field);
+			if (value != null) result.put(field, value);
+		}
+
+		return result;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public boolean isSorted() {
+		return sortBy != null;
+	}
+
+	private static int compareValues(Object a, Object b) {
+		// nils go last, numbers before strings
+		if (a == null) return b == null? 0 : 1;
+		if (b == null) return -1;
+
+		if (a instanceof Number) {
+			if (b instanceof Number) return Double.compare(((Number)a).doubleValue(), ((Number)b).doubleValue());
+			return -1;
+		}
+
+		if (b instanceof Number) return 1;
+
+		return a.toString().compareTo(b.toString());
+	}
+
+	public Comparator<Object> getRowComparator() {
+		Preconditions.checkState(sortBy != null, "Query is not sorted");
+		return new Comparator<Object>() {
+			@Override
+			public int compare(Object a, Object b) {
+				final Object valueA = (a instanceof Map)? ((Map<?, ?>)a).get(sortBy) : null;
+				final Object valueB = (b instanceof Map)? ((Map<?, ?>)b).get(sortBy) : null;
+				// rows without value are always last
+				if (valueA == null || valueB == null) return compareValues(valueA, valueB);
+				final int result = compareValues(valueA, valueB);
+				return descending? -result : result;
+			}
+		};
+	}
+}
@@ -0,0 +1,145 @@
+package openperipheral.converter;
+
+import java.util.*;
+
+import openperipheral.api.ITypeConvertersRegistry;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Table with string keys, stored as {@link TableShape} and array of values. Null values are treated as missing entries.
+ * Much cheaper than {@link HashMap} when there are many tables with same keys (like item or entity metadata).
+ */
+public class ShapedTable extends AbstractMap<String, Object> {
+
+	private TableShape shape;
+
+	private Object[] values;
+
+	private int size;
+
+	public ShapedTable(TableShape shape) {
+		this.shape = shape;
+		this.values = new Object[shape.size()];
+	}
+
+	private ShapedTable(TableShape shape, Object[] values, int size) {
+		this.shape = shape;
+		this.values = values;
+		this.size = size;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public Object get(Object key) {
+		final int index = shape.indexOf(key);
+		return (index >= 0 && index < values.length)? values[index] : null;
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		Preconditions.checkNotNull(key, "Null key");
+		int index = shape.indexOf(key);
+		if (index < 0) {
+			if (value == null) return null;
+			shape = shape.extend(key);
+			index = shape.indexOf(key);
+		}
+
+		if (index >= values.length) {
+			if (value == null) return null;
+			values = Arrays.copyOf(values, shape.size());
+		}
+
+		final Object prev = values[index];
+		values[index] = value;
+		if (prev == null && value != null) size++;
+		else if (prev != null && value == null) size--;
+		return prev;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		return (key instanceof String)? put((String)key, null) : null;
+	}
+
+	public ShapedTable copy() {
+		return new ShapedTable(shape, values.clone(), size);
+	}
+
+	/**
+	 * Creates table with same shape and converted values
+	 *
+	 * @param keys
+	 *            entries to be converted, null if all are needed
+	 */
+	public ShapedTable convertValues(ITypeConvertersRegistry registry, Set<String> keys) {
+		final Object[] converted = new Object[values.length];
+		int convertedSize = 0;
+		for (int i = 0; i < values.length; i++) {
+			final Object value = values[i];
+			if (value != null && (keys == null || keys.contains(shape.getKey(i)))) {
+				final Object result = registry.toLua(value);
+				converted[i] = result;
+				if (result != null) convertedSize++;
+			}
+		}
+
+		return new ShapedTable(shape, converted, convertedSize);
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return new AbstractSet<Entry<String, Object>>() {
+			@Override
+			public Iterator<Entry<String, Object>> iterator() {
+				return new Iterator<Entry<String, Object>>() {
+					private int next = findNext(0);
+
+					private int current = -1;
+
+					private int findNext(int start) {
+						while (start < values.length && values[start] == null)
+							start++;
+						return start;
+					}
+
+					@Override
+					public boolean hasNext() {
+						return next < values.length;
+					}
+
+					@Override
+					public Entry<String, Object> next() {
+						if (next >= values.length) throw new NoSuchElementException();
+						current = next;
+						next = findNext(next + 1);
+						return new SimpleImmutableEntry<String, Object>(shape.getKey(current), values[current]);
+					}
+
+					@Override
+					public void remove() {
+						Preconditions.checkState(current >= 0, "No current element");
+						values[current] = null;
+						size--;
+						current = -1;
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+}
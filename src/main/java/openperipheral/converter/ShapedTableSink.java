@@ -0,0 +1,30 @@
+package openperipheral.converter;
+
+import openperipheral.api.ILuaTableSink;
+import openperipheral.api.ITypeConvertersRegistry;
+
+/**
+ * Sink that converts values with registry and stores them in {@link ShapedTable}. Only string keys are accepted.
+ */
+public class ShapedTableSink implements ILuaTableSink {
+
+	private final ITypeConvertersRegistry registry;
+
+	private final ShapedTable table;
+
+	private final ITableSizeTracker sizeTracker;
+
+	public ShapedTableSink(ITypeConvertersRegistry registry, ShapedTable table) {
+		this.registry = registry;
+		this.table = table;
+		this.sizeTracker = (registry instanceof ITableSizeTracker)? (ITableSizeTracker)registry : null;
+	}
+
+	@Override
+	public void put(Object key, Object value) {
+		if (!(key instanceof String)) throw new IllegalArgumentException("Invalid key type: " + key);
+		if (value == null) return;
+		if (sizeTracker != null) sizeTracker.addEntries(1);
+		table.put((String)key, registry.toLua(value));
+	}
+}
@@ -0,0 +1,16 @@
+package openperipheral.converter;
+
+import openperipheral.api.IStreamingTypeConverter;
+import openperipheral.api.ITypeConvertersRegistry;
+
+/**
+ * Base for streaming converters, implements non-streaming conversion with {@link LuaTableSink}
+ */
+public abstract class StreamingTypeConverter implements IStreamingTypeConverter {
+
+	@Override
+	public Object toLua(ITypeConvertersRegistry registry, Object obj) {
+		LuaTableSink sink = new LuaTableSink(registry);
+		return toLua(registry, obj, sink)? sink.getTable() : null;
+	}
+}
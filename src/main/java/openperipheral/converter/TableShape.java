@@ -0,0 +1,66 @@
+package openperipheral.converter;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+/**
+ * Fixed, ordered set of string keys shared by many {@link ShapedTable} instances (similar to hidden classes in JS engines).
+ * Adding key not present in shape moves table to extended shape. Extensions are cached, so tables built in same order share shapes.
+ * Shapes should only be created for small, known set of keys, since extensions are never released.
+ */
+public class TableShape {
+
+	private final String[] keys;
+
+	private final Map<String, Integer> indices;
+
+	private final ConcurrentMap<String, TableShape> extensions = Maps.newConcurrentMap();
+
+	private TableShape(String[] keys) {
+		this.keys = keys;
+
+		ImmutableMap.Builder<String, Integer> indices = ImmutableMap.builder();
+		for (int i = 0; i < keys.length; i++)
+			indices.put(keys[i], i);
+		this.indices = indices.build();
+	}
+
+	public static TableShape of(String... keys) {
+		return new TableShape(keys.clone());
+	}
+
+	public int size() {
+		return keys.length;
+	}
+
+	public String getKey(int index) {
+		return keys[index];
+	}
+
+	public int indexOf(Object key) {
+		final Integer index = indices.get(key);
+		return index != null? index : -1;
+	}
+
+	public TableShape extend(String key) {
+		TableShape result = extensions.get(key);
+		if (result == null) {
+			final String[] newKeys = Arrays.copyOf(keys, keys.length + 1);
+			newKeys[keys.length] = key;
+			final TableShape newShape = new TableShape(newKeys);
+			result = extensions.putIfAbsent(key, newShape);
+			if (result == null) result = newShape;
+		}
+
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(keys);
+	}
+}
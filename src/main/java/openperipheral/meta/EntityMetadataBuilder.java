@@ -1,29 +1,56 @@
 package openperipheral.meta;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 import net.minecraft.entity.Entity;
 import net.minecraft.util.Vec3;
 import openperipheral.ApiImplementation;
-import openperipheral.api.IEntityMetadataBuilder;
 import openperipheral.api.IEntityMetadataProvider;
+import openperipheral.api.IExtendedEntityMetadataBuilder;
+import openperipheral.converter.ShapedTable;
+import openperipheral.converter.TableShape;
 
 import com.google.common.collect.Maps;
 
 @ApiImplementation
-public class EntityMetadataBuilder implements IEntityMetadataBuilder {
+public class EntityMetadataBuilder implements IExtendedEntityMetadataBuilder {
+
+	private static final TableShape SHAPE = TableShape.of("position", "name", "id", "uuid", "riddenBy", "ridingEntity");
+
+	private static final TableShape POSITION_SHAPE = TableShape.of("x", "y", "z");
+
+	// columns with nil entries would become holey sequences in Lua, so missing values are replaced with sentinels
+	private static final int NOT_RIDING = -1;
+
+	private static final Object NOT_APPLICABLE = Boolean.FALSE;
+
+	private static final TableShape BULK_SHAPE = TableShape.of("count", "id", "x", "y", "z", "name", "uuid", "ridingEntity", "providers");
+
 	@Override
 	public Map<String, Object> getEntityMetadata(Entity entity, Vec3 relativePos) {
+		return getEntityMetadata(entity, relativePos, null);
+	}
+
+	private static boolean isRequested(Set<String> keys, String key) {
+		return keys == null || keys.contains(key);
+	}
 
-		Map<String, Object> map = Maps.newHashMap();
+	@Override
+	public Map<String, Object> getEntityMetadata(Entity entity, Vec3 relativePos, Set<String> keys) {
+
+		Map<String, Object> map = new ShapedTable(SHAPE);
 
-		addPositionInfo(map, entity, relativePos);
-		map.put("name", entity.getCommandSenderName());
+		if (isRequested(keys, "position")) addPositionInfo(map, entity, relativePos);
+		if (isRequested(keys, "name")) map.put("name", entity.getCommandSenderName());
 		map.put("id", entity.getEntityId());
-		map.put("uuid", entity.getUniqueID());
+		if (isRequested(keys, "uuid")) map.put("uuid", entity.getUniqueID());
 
-		if (entity.riddenByEntity != null) {
-			map.put("riddenBy", getEntityMetadata(entity.riddenByEntity, relativePos));
+		if (entity.riddenByEntity != null && isRequested(keys, "riddenBy")) {
+			map.put("riddenBy", getEntityMetadata(entity.riddenByEntity, relativePos, keys));
 		}
 
 		if (entity.ridingEntity != null) {
@@ -34,14 +61,81 @@ public class EntityMetadataBuilder implements IEntityMetadataBuilder {
 		final Iterable<IEntityMetadataProvider<Object>> providers = (Iterable<IEntityMetadataProvider<Object>>)MetaProvidersRegistry.ENITITES.getProviders(entity.getClass());
 
 		for (IEntityMetadataProvider<Object> provider : providers) {
+			final String key = provider.getKey();
+			if (!isRequested(keys, key)) continue;
 			Object converted = provider.getMeta(entity, relativePos);
-			if (converted != null) {
+			if (converted != null) map.put(key, converted);
+		}
+
+		return map;
+	}
+
+	@Override
+	public Map<String, Object> getEntitiesMetadata(Collection<? extends Entity> entities, Vec3 relativePos, Set<String> keys) {
+		final int count = entities.size();
+
+		// primitive arrays are converted to Lua directly, without intermediate maps
+		final int[] ids = new int[count];
+		final boolean withPosition = isRequested(keys, "position");
+		final double[] xs = withPosition? new double[count] : null;
+		final double[] ys = withPosition? new double[count] : null;
+		final double[] zs = withPosition? new double[count] : null;
+		final String[] names = isRequested(keys, "name")? new String[count] : null;
+		final UUID[] uuids = isRequested(keys, "uuid")? new UUID[count] : null;
+		final int[] riding = new int[count];
+		final Map<String, Object[]> providerColumns = Maps.newHashMap();
+
+		final double offsetX = relativePos != null? relativePos.xCoord : 0;
+		final double offsetY = relativePos != null? relativePos.yCoord : 0;
+		final double offsetZ = relativePos != null? relativePos.zCoord : 0;
+
+		int i = 0;
+		for (Entity entity : entities) {
+			ids[i] = entity.getEntityId();
+
+			if (withPosition) {
+				xs[i] = entity.posX - offsetX;
+				ys[i] = entity.posY - offsetY;
+				zs[i] = entity.posZ - offsetZ;
+			}
+
+			if (names != null) names[i] = entity.getCommandSenderName();
+			if (uuids != null) uuids[i] = entity.getUniqueID();
+			riding[i] = entity.ridingEntity != null? entity.ridingEntity.getEntityId() : NOT_RIDING;
+
+			@SuppressWarnings("unchecked")
+			final Iterable<IEntityMetadataProvider<Object>> providers = (Iterable<IEntityMetadataProvider<Object>>)MetaProvidersRegistry.ENITITES.getProviders(entity.getClass());
+
+			for (IEntityMetadataProvider<Object> provider : providers) {
 				final String key = provider.getKey();
-				map.put(key, converted);
+				if (!isRequested(keys, key)) continue;
+				Object converted = provider.getMeta(entity, relativePos);
+				if (converted != null) {
+					Object[] column = providerColumns.get(key);
+					if (column == null) {
+						column = new Object[count];
+						Arrays.fill(column, NOT_APPLICABLE);
+						providerColumns.put(key, column);
+					}
+					column[i] = converted;
+				}
 			}
+
+			i++;
 		}
 
-		return map;
+		Map<String, Object> result = new ShapedTable(BULK_SHAPE);
+		result.put("count", count);
+		result.put("id", ids);
+		result.put("x", xs);
+		result.put("y", ys);
+		result.put("z", zs);
+		result.put("name", names);
+		result.put("uuid", uuids);
+		result.put("ridingEntity", riding);
+		// provider keys vary between calls, so they are not part of shape
+		result.put("providers", providerColumns);
+		return result;
 	}
 
 	private static void addPositionInfo(Map<String, Object> map, Entity entity, Vec3 relativePos) {
@@ -53,7 +147,7 @@ public class EntityMetadataBuilder implements IEntityMetadataBuilder {
 	}
 
 	private static Map<String, Object> addAbsolutePos(Entity entity) {
-		Map<String, Object> position = Maps.newHashMap();
+		Map<String, Object> position = new ShapedTable(POSITION_SHAPE);
 		position.put("x", entity.posX);
 		position.put("y", entity.posY);
 		position.put("z", entity.posZ);
@@ -61,7 +155,7 @@ public class EntityMetadataBuilder implements IEntityMetadataBuilder {
 	}
 
 	private static Map<String, Object> addRelativePos(Entity entity, Vec3 relativePos) {
-		Map<String, Object> position = Maps.newHashMap();
+		Map<String, Object> position = new ShapedTable(POSITION_SHAPE);
 		position.put("x", entity.posX - relativePos.xCoord);
 		position.put("y", entity.posY - relativePos.yCoord);
 		position.put("z", entity.posZ - relativePos.zCoord);
@@ -0,0 +1,136 @@
+package openperipheral.meta;
+
+import java.util.Set;
+
+import net.minecraft.item.Item;
+import net.minecraft.nbt.*;
+import openperipheral.converter.LuaValueHasher;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import cpw.mods.fml.common.registry.GameRegistry;
+
+/**
+ * Cached resolution of item ids (in {@code mod_id:name} format) and NBT hashes used in Lua item descriptions.
+ */
+public class ItemLookup {
+
+	private static final int ITEM_CACHE_SIZE = 4096;
+
+	private static final int TAG_CACHE_SIZE = 1024;
+
+	// absent value means unknown id
+	private static final Cache<String, Optional<Item>> ITEMS = CacheBuilder.newBuilder().maximumSize(ITEM_CACHE_SIZE).build();
+
+	private static final Cache<String, NBTTagCompound> TAGS = CacheBuilder.newBuilder().maximumSize(TAG_CACHE_SIZE).build();
+
+	private static Item resolve(String id) {
+		final int separator = id.indexOf(':');
+		if (separator <= 0 || separator == id.length() - 1 || id.indexOf(':', separator + 1) >= 0) throw new IllegalArgumentException("Invalid item id '" + id + "', expected 'mod_id:name'");
+		return GameRegistry.findItem(id.substring(0, separator), id.substring(separator + 1));
+	}
+
+	public static Item findItem(String id) {
+		Optional<Item> item = ITEMS.getIfPresent(id);
+		if (item == null) {
+			item = Optional.fromNullable(resolve(id));
+			ITEMS.put(id, item);
+		}
+
+		if (!item.isPresent()) throw new IllegalArgumentException("Unknown item id '" + id + "'");
+		return item.get();
+	}
+
+	private static final int TAG_FLOAT = 5;
+	private static final int TAG_DOUBLE = 6;
+	private static final int TAG_BYTE_ARRAY = 7;
+	private static final int TAG_STRING = 8;
+	private static final int TAG_LIST = 9;
+	private static final int TAG_COMPOUND = 10;
+	private static final int TAG_INT_ARRAY = 11;
+
+	private static long hashCompound(NBTTagCompound tag) {
+		long h = 0;
+		// entry order depends on map, so entries are combined with commutative operation
+		for (Object key : (Set<?>)tag.func_150296_c()) {
+			final String name = (String)key;
+			h += LuaValueHasher.mix(LuaValueHasher.hashString(name) * 31 + hashTag(tag.getTag(name)));
+		}
+		return LuaValueHasher.mix(h + tag.func_150296_c().size());
+	}
+
+	private static long hashList(NBTTagList tag) {
+		final int count = tag.tagCount();
+		final boolean isCompound = tag.func_150303_d() == TAG_COMPOUND;
+		long h = tag.func_150303_d();
+		for (int i = 0; i < count; i++) {
+			// there is no generic element getter, other element types are only available as strings
+			final long element = isCompound? hashCompound(tag.getCompoundTagAt(i)) : LuaValueHasher.hashString(tag.getStringTagAt(i));
+			h = LuaValueHasher.mix(h * 31 + element);
+		}
+		return LuaValueHasher.mix(h + count);
+	}
+
+	private static long hashTag(NBTBase tag) {
+		final int id = tag.getId();
+		final long h;
+		switch (id) {
+			case TAG_COMPOUND:
+				h = hashCompound((NBTTagCompound)tag);
+				break;
+			case TAG_LIST:
+				h = hashList((NBTTagList)tag);
+				break;
+			case TAG_STRING:
+				h = LuaValueHasher.hashString(((NBTTagString)tag).func_150285_a_());
+				break;
+			case TAG_BYTE_ARRAY: {
+				long v = 0;
+				for (byte b : ((NBTTagByteArray)tag).func_150292_c())
+					v = v * 31 + b;
+				h = LuaValueHasher.mix(v);
+				break;
+			}
+			case TAG_INT_ARRAY: {
+				long v = 0;
+				for (int i : ((NBTTagIntArray)tag).func_150302_c())
+					v = v * 31 + i;
+				h = LuaValueHasher.mix(v);
+				break;
+			}
+			case TAG_FLOAT:
+			case TAG_DOUBLE:
+				h = LuaValueHasher.mix(Double.doubleToLongBits(((NBTBase.NBTPrimitive)tag).func_150286_g()));
+				break;
+			default:
+				h = (tag instanceof NBTBase.NBTPrimitive)? LuaValueHasher.mix(((NBTBase.NBTPrimitive)tag).func_150291_c()) : tag.hashCode();
+		}
+
+		return LuaValueHasher.mix(h * 31 + id);
+	}
+
+	/**
+	 * Calculates 64-bit hash of tag structure and remembers tag, so it can be later found with {@link #findTag(String)}
+	 */
+	public static String getNbtHash(NBTTagCompound tag) {
+		final String result = Long.toHexString(hashTag(tag));
+		rememberTag(result, tag);
+		return result;
+	}
+
+	/**
+	 * Keeps tag with already calculated hash available for {@link #findTag(String)}
+	 */
+	public static void rememberTag(String hash, NBTTagCompound tag) {
+		if (TAGS.getIfPresent(hash) == null) TAGS.put(hash, (NBTTagCompound)tag.copy());
+	}
+
+	/**
+	 * @return tag with given hash or null, if it wasn't seen recently
+	 */
+	public static NBTTagCompound findTag(String hash) {
+		return TAGS.getIfPresent(hash);
+	}
+}
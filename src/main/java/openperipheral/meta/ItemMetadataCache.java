@@ -0,0 +1,106 @@
+package openperipheral.meta;
+
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import openperipheral.Config;
+import openperipheral.converter.BoxedDoubles;
+import openperipheral.converter.ShapedTable;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Stores converted metadata of item stacks, keyed by item, damage and NBT. Only stack size is different between stacks with same key, so it's replaced on every read.
+ * Providers should not depend on stack size, since their results are shared by all stacks of same kind.
+ */
+public class ItemMetadataCache {
+
+	public static final ItemMetadataCache INSTANCE = new ItemMetadataCache();
+
+	private static final String QTY = "qty";
+
+	private static final String NBT_HASH = "nbt_hash";
+
+	private static class Key {
+		private final Item item;
+		private final int damage;
+		private final NBTTagCompound tag;
+		private final int hash;
+
+		private Key(Item item, int damage, NBTTagCompound tag) {
+			this.item = item;
+			this.damage = damage;
+			this.tag = tag;
+			this.hash = 31 * (31 * System.identityHashCode(item) + damage) + (tag != null? tag.hashCode() : 0);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) return false;
+			final Key other = (Key)obj;
+			return item == other.item && damage == other.damage && Objects.equal(tag, other.tag);
+		}
+	}
+
+	private final Cache<Key, ShapedTable> cache;
+
+	private ItemMetadataCache() {
+		this.cache = CacheBuilder.newBuilder()
+				.maximumSize(Math.max(Config.itemMetadataCacheSize, 0))
+				.expireAfterAccess(5, TimeUnit.MINUTES)
+				.recordStats()
+				.build();
+	}
+
+	public boolean isEnabled() {
+		return Config.itemMetadataCacheSize > 0;
+	}
+
+	/**
+	 * @return new copy of cached metadata with stack size of given stack, or null if not found
+	 */
+	public ShapedTable get(ItemStack stack) {
+		if (!isEnabled()) return null;
+		// live tag is fine for lookup, since it's not stored
+		final NBTTagCompound tag = stack.getTagCompound();
+		final ShapedTable cached = cache.getIfPresent(new Key(stack.getItem(), stack.getItemDamage(), tag));
+		if (cached == null) return null;
+
+		// tag lookup may have evicted it, while description is still cached
+		final Object nbtHash = cached.get(NBT_HASH);
+		if (tag != null && nbtHash instanceof String) ItemLookup.rememberTag((String)nbtHash, tag);
+
+		final ShapedTable result = cached.copy();
+		result.put(QTY, BoxedDoubles.valueOf(stack.stackSize));
+		return result;
+	}
+
+	public void put(ItemStack stack, ShapedTable converted) {
+		if (!isEnabled()) return;
+		final NBTTagCompound tag = stack.getTagCompound();
+		final Key key = new Key(stack.getItem(), stack.getItemDamage(), tag != null? (NBTTagCompound)tag.copy() : null);
+		cache.put(key, converted.copy());
+	}
+
+	public void invalidate() {
+		cache.invalidateAll();
+	}
+
+	public long getSize() {
+		return cache.size();
+	}
+
+	public CacheStats getStats() {
+		return cache.stats();
+	}
+}
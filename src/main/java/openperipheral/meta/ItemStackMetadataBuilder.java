@@ -1,22 +1,26 @@
 package openperipheral.meta;
 
 import java.util.Map;
+import java.util.Set;
 
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
 import openperipheral.ApiImplementation;
-import openperipheral.api.IItemStackMetadataBuilder;
+import openperipheral.api.IExtendedItemStackMetadataBuilder;
 import openperipheral.api.IItemStackMetadataProvider;
+import openperipheral.api.ILuaTableSink;
+import openperipheral.converter.ShapedTable;
+import openperipheral.converter.TableShape;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
 
 import cpw.mods.fml.common.registry.GameRegistry;
 import cpw.mods.fml.common.registry.GameRegistry.UniqueIdentifier;
 
 @ApiImplementation
-public class ItemStackMetadataBuilder implements IItemStackMetadataBuilder {
+public class ItemStackMetadataBuilder implements IExtendedItemStackMetadataBuilder {
 
 	private static String getNameForItemStack(ItemStack is) {
 		try {
@@ -46,45 +50,89 @@ public class ItemStackMetadataBuilder implements IItemStackMetadataBuilder {
 		NULL = builder.build();
 	}
 
+	public static final TableShape SHAPE = TableShape.of("id", "name", "mod_id", "display_name", "raw_name", "qty", "dmg", "max_dmg", "max_size", "nbt_hash");
+
+	private static class MapSink implements ILuaTableSink {
+		private final ShapedTable map = new ShapedTable(SHAPE);
+
+		@Override
+		public void put(Object key, Object value) {
+			if (value != null) map.put((String)key, value);
+		}
+	}
+
 	@Override
 	public Map<String, Object> getItemStackMetadata(ItemStack itemstack) {
+		return getItemStackMetadata(itemstack, null);
+	}
+
+	@Override
+	public Map<String, Object> getItemStackMetadata(ItemStack itemstack, Set<String> keys) {
 		if (itemstack == null) return NULL;
 
-		Map<String, Object> map = Maps.newHashMap();
+		MapSink sink = new MapSink();
+		fillItemStackMetadata(itemstack, sink, keys);
+		return sink.map;
+	}
+
+	@Override
+	public void fillItemStackMetadata(ItemStack itemstack, ILuaTableSink sink) {
+		fillItemStackMetadata(itemstack, sink, null);
+	}
+
+	private static boolean isRequested(Set<String> keys, String key) {
+		return keys == null || keys.contains(key);
+	}
+
+	@Override
+	public void fillItemStackMetadata(ItemStack itemstack, ILuaTableSink sink, Set<String> keys) {
+		if (itemstack == null) {
+			sink.put("id", "invalid");
+			return;
+		}
+
 		Item item = itemstack.getItem();
 
-		fillBasicProperties(map, item, itemstack);
+		fillBasicProperties(sink, item, itemstack, keys);
 
 		@SuppressWarnings("unchecked")
 		final Iterable<IItemStackMetadataProvider<Object>> providers = (Iterable<IItemStackMetadataProvider<Object>>)MetaProvidersRegistry.ITEMS.getProviders(item.getClass());
 
 		for (IItemStackMetadataProvider<Object> provider : providers) {
+			final String key = provider.getKey();
+			if (!isRequested(keys, key)) continue;
 			Object converted = provider.getMeta(item, itemstack);
-			if (converted != null) {
-				final String key = provider.getKey();
-				map.put(key, converted);
-			}
+			if (converted != null) sink.put(key, converted);
 		}
-
-		return map;
 	}
 
-	private static void fillBasicProperties(Map<String, Object> map, Item item, ItemStack itemstack) {
-		UniqueIdentifier id = GameRegistry.findUniqueIdentifierFor(item);
-		Preconditions.checkNotNull(id, "Invalid item stack: %s", itemstack);
-		map.put("id", id.toString());
-		map.put("name", id.name);
-		map.put("mod_id", id.modId);
-		map.put("display_name", getNameForItemStack(itemstack));
-		map.put("raw_name", getRawNameForStack(itemstack));
+	private static void fillBasicProperties(ILuaTableSink map, Item item, ItemStack itemstack, Set<String> keys) {
+		if (isRequested(keys, "id") || isRequested(keys, "name") || isRequested(keys, "mod_id")) {
+			UniqueIdentifier id = GameRegistry.findUniqueIdentifierFor(item);
+			Preconditions.checkNotNull(id, "Invalid item stack: %s", itemstack);
+			map.put("id", id.toString());
+			map.put("name", id.name);
+			map.put("mod_id", id.modId);
+		}
+
+		// names may be expensive (localization)
+		if (isRequested(keys, "display_name")) map.put("display_name", getNameForItemStack(itemstack));
+		if (isRequested(keys, "raw_name")) map.put("raw_name", getRawNameForStack(itemstack));
+
 		map.put("qty", itemstack.stackSize);
 		map.put("dmg", itemstack.getItemDamage());
 		map.put("max_dmg", itemstack.getMaxDamage());
 		map.put("max_size", itemstack.getMaxStackSize());
+
+		if (isRequested(keys, "nbt_hash")) {
+			final NBTTagCompound tag = itemstack.getTagCompound();
+			if (tag != null) map.put("nbt_hash", ItemLookup.getNbtHash(tag));
+		}
 	}
 
 	@Override
 	public void register(IItemStackMetadataProvider<?> provider) {
 		MetaProvidersRegistry.ITEMS.addProvider(provider);
+		ItemMetadataCache.INSTANCE.invalidate();
 	}
 }
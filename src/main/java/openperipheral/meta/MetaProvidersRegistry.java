@@ -1,8 +1,10 @@
 package openperipheral.meta;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 import net.minecraft.entity.Entity;
 import net.minecraft.item.Item;
@@ -28,67 +30,90 @@ public abstract class MetaProvidersRegistry<P extends IMetaProvider<?>> {
 
 	public static final MetaProvidersRegistry<IItemStackMetadataProvider<?>> ITEMS = create(Item.class);
 
-	private final Multimap<Class<?>, P> directProviders = HashMultimap.create();
+	private class Providers {
+		private final ImmutableMultimap<Class<?>, P> direct;
 
-	private final Set<P> genericProviders = Sets.newIdentityHashSet();
+		private final ImmutableList<P> generic;
 
-	private final Multimap<Class<?>, P> specificProvidersCache = HashMultimap.create();
+		private Providers(ImmutableMultimap<Class<?>, P> direct, ImmutableList<P> generic) {
+			this.direct = direct;
+			this.generic = generic;
+		}
+	}
 
-	private final Set<Class<?>> inCache = Sets.newHashSet();
+	// copy-on-write, since registration is rare and lookups happen on many threads
+	private volatile Providers providers = new Providers(ImmutableMultimap.<Class<?>, P> of(), ImmutableList.<P> of());
+
+	private final ConcurrentMap<Class<?>, ImmutableList<P>> providersCache = Maps.newConcurrentMap();
 
 	protected abstract boolean validateCls(Class<?> targetCls);
 
-	public void addProvider(P provider) {
+	public synchronized void addProvider(P provider) {
 		final Class<?> targetClass = provider.getTargetClass();
 
-		Preconditions.checkArgument(targetClass.isInterface() || validateCls(targetClass),
+		Preconditions.checkArgument(targetClass == Object.class || targetClass.isInterface() || validateCls(targetClass),
 				"Invalid type: %s", targetClass);
 
-		if (targetClass == Object.class) genericProviders.add(provider);
-		else directProviders.put(targetClass, provider);
+		final Providers prev = providers;
+		if (targetClass == Object.class) {
+			providers = new Providers(prev.direct, ImmutableList.<P> builder().addAll(prev.generic).add(provider).build());
+		} else {
+			providers = new Providers(ImmutableMultimap.<Class<?>, P> builder().putAll(prev.direct).put(targetClass, provider).build(), prev.generic);
+		}
 
-		specificProvidersCache.clear();
-		inCache.clear();
+		providersCache.clear();
 	}
 
-	public Iterable<? extends P> getProviders(Class<?> cls) {
-		Iterable<? extends P> specific;
-
-		if (!inCache.contains(cls)) {
-			specific = collectProviders(cls);
-			specificProvidersCache.putAll(cls, specific);
-			inCache.add(cls);
-		} else {
-			specific = specificProvidersCache.get(cls);
+	/**
+	 * @return all providers applicable to class (including generic ones), each one only once
+	 */
+	public List<? extends P> getProviders(Class<?> cls) {
+		ImmutableList<P> result = providersCache.get(cls);
+		if (result == null) {
+			final Providers current = providers;
+			result = collectProviders(cls, current);
+			providersCache.put(cls, result);
+			// new provider registered in meantime, entry may be stale
+			if (current != providers) providersCache.remove(cls);
 		}
 
-		return Iterables.concat(specificProvidersCache.get(cls), specific);
+		return result;
 	}
 
-	private Set<P> collectProviders(Class<?> targetCls) {
-		Set<P> providers = Sets.newIdentityHashSet();
+	private ImmutableList<P> collectProviders(Class<?> targetCls, Providers current) {
+		Set<P> seen = Sets.newIdentityHashSet();
+		ImmutableList.Builder<P> result = ImmutableList.builder();
+		Set<String> keys = Sets.newHashSet();
+
 		for (Class<?> cls : getAllImplementedClasses(targetCls))
-			providers.addAll(directProviders.get(cls));
+			for (P provider : current.direct.get(cls))
+				appendProvider(provider, seen, keys, result, targetCls);
 
-		Set<String> keys = Sets.newHashSet();
-		for (P provider : providers) {
-			final String key = provider.getKey();
-			boolean isNew = keys.add(key);
-			Preconditions.checkState(isNew, "Meta provider key %s is duplicated for class %s", key, targetCls);
-		}
+		for (P provider : current.generic)
+			appendProvider(provider, seen, keys, result, targetCls);
+
+		return result.build();
+	}
+
+	private static <P extends IMetaProvider<?>> void appendProvider(P provider, Set<P> seen, Set<String> keys, ImmutableList.Builder<P> result, Class<?> targetCls) {
+		if (!seen.add(provider)) return;
 
-		return providers;
+		final String key = provider.getKey();
+		boolean isNew = keys.add(key);
+		Preconditions.checkState(isNew, "Meta provider key %s is duplicated for class %s", key, targetCls);
+		result.add(provider);
 	}
 
 	private static Set<Class<?>> getAllImplementedClasses(Class<?> targetCls) {
-		Set<Class<?>> classes = Sets.newHashSet();
+		Set<Class<?>> classes = Sets.newLinkedHashSet();
 		Queue<Class<?>> queue = Lists.newLinkedList();
 		queue.add(targetCls);
 
 		Class<?> cls;
 		while ((cls = queue.poll()) != null) {
-			classes.add(cls);
-			queue.add(cls.getSuperclass());
+			if (!classes.add(cls)) continue;
+			final Class<?> superclass = cls.getSuperclass();
+			if (superclass != null) queue.add(superclass);
 			queue.addAll(Arrays.asList(cls.getInterfaces()));
 		}
 		return classes;